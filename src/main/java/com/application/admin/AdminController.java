@@ -0,0 +1,140 @@
+package com.application.admin;
+
+import com.application.aws.service.S3FileService;
+import com.application.aws.service.S3MetadataCacheStats;
+import com.application.aws.service.S3UploadStatus;
+import com.application.config.aop.MethodLatency;
+import com.application.config.aop.MethodTimingAspect;
+import com.application.config.aop.SpanRecorder;
+import com.application.config.aop.TraceView;
+import com.application.config.jfr.FlightRecordingStatus;
+import com.application.config.jfr.FlightRecordings;
+import com.application.config.jwt.IndexSweepStats;
+import com.application.config.jwt.TokenFootprintReport;
+import com.application.config.jwt.TokenIndexSweeper;
+import com.application.config.jwt.TokenStoreFootprint;
+import com.application.config.mail.MailTransport;
+import com.application.config.mail.MailTransportStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@Tag(name = "Admin", description = "Internal operational APIs, restricted to admins.")
+public class AdminController {
+
+    private final TokenStoreFootprint tokenStoreFootprint;
+    private final TokenIndexSweeper tokenIndexSweeper;
+    private final MailTransport mailTransport;
+    private final MethodTimingAspect methodTimingAspect;
+    private final SpanRecorder spanRecorder;
+    private final FlightRecordings flightRecordings;
+    private final S3FileService s3FileService;
+
+    @GetMapping(path = "/token-store/footprint")
+    @Operation(summary = "Token store footprint", description = "Sample Redis and report bytes per session for the legacy and compact token layouts.")
+    public ResponseEntity<TokenFootprintReport> tokenStoreFootprint(@RequestParam(defaultValue = "1000") int sample) {
+        return new ResponseEntity<>(tokenStoreFootprint.report(sample), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/token-store/sweeper")
+    @Operation(summary = "Index sweeper metrics", description = "Entries scanned, entries removed and time spent by the legacy index sweeper.")
+    public ResponseEntity<IndexSweepStats> tokenIndexSweeper() {
+        return new ResponseEntity<>(tokenIndexSweeper.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/mail/transport")
+    @Operation(summary = "Mail transport metrics", description = "Messages sent and failed, batches, SMTP connections and per-domain concurrency.")
+    public ResponseEntity<MailTransportStats> mailTransport() {
+        return new ResponseEntity<>(mailTransport.stats(), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/s3/metadata-cache")
+    @Operation(summary = "S3 metadata cache metrics", description = "Existence and metadata lookups served locally, from Redis, or sent to S3.")
+    public ResponseEntity<S3MetadataCacheStats> s3MetadataCache() {
+        return new ResponseEntity<>(s3FileService.metadataCacheStats(), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/s3/uploads")
+    @Operation(summary = "S3 uploads in progress", description = "Streaming multipart uploads running on this node, with bytes read from the client and bytes acknowledged by S3.")
+    public ResponseEntity<List<S3UploadStatus>> s3Uploads() {
+        return new ResponseEntity<>(s3FileService.uploads(), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/latency")
+    @Operation(summary = "Method latency", description = "Call counts and latency percentiles per service, repository and controller method, slowest p99 first.")
+    public ResponseEntity<List<MethodLatency>> methodLatency(@RequestParam(defaultValue = "50") int limit) {
+        List<MethodLatency> methods = methodTimingAspect.snapshot();
+        return new ResponseEntity<>(methods.subList(0, Math.max(0, Math.min(limit, methods.size()))), HttpStatus.OK);
+    }
+
+    @DeleteMapping(path = "/latency")
+    @Operation(summary = "Reset method latency", description = "Clear all recorded method latencies.")
+    public ResponseEntity<Void> resetMethodLatency() {
+        methodTimingAspect.reset();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @GetMapping(path = "/traces/slow")
+    @Operation(summary = "Slow traces", description = "Recently kept request traces, slowest first, with their Redis, database, SMTP and S3 spans as a waterfall.")
+    public ResponseEntity<List<TraceView>> slowTraces(@RequestParam(defaultValue = "20") int limit,
+                                                      @RequestParam(defaultValue = "0") long minMillis) {
+        return new ResponseEntity<>(spanRecorder.slowest(Math.max(0, limit), minMillis), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/jfr")
+    @Operation(summary = "Flight recording status", description = "State, limits and current size of the on-demand flight recording.")
+    public ResponseEntity<FlightRecordingStatus> flightRecording() {
+        return new ResponseEntity<>(flightRecordings.status(), HttpStatus.OK);
+    }
+
+    @PostMapping(path = "/jfr/start")
+    @Operation(summary = "Start flight recording", description = "Start a flight recording with the JDK default settings and the application events, bounded by age and size.")
+    public ResponseEntity<FlightRecordingStatus> startFlightRecording(@RequestParam(defaultValue = "600") long maxAgeSeconds,
+                                                                      @RequestParam(defaultValue = "64") long maxSizeMb) {
+        return new ResponseEntity<>(flightRecordings.start(maxAgeSeconds, maxSizeMb), HttpStatus.OK);
+    }
+
+    @PostMapping(path = "/jfr/stop")
+    @Operation(summary = "Stop flight recording", description = "Stop the running flight recording; its data stays available for dump until the next start.")
+    public ResponseEntity<FlightRecordingStatus> stopFlightRecording() {
+        return new ResponseEntity<>(flightRecordings.stop(), HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/jfr/dump")
+    @Operation(summary = "Download flight recording", description = "Download what the flight recording holds as a .jfr file, open in JDK Mission Control.")
+    public ResponseEntity<StreamingResponseBody> dumpFlightRecording() {
+        Path file = flightRecordings.dump();
+        if (file == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"application.jfr\"")
+                .body(body);
+    }
+}
@@ -1,7 +1,9 @@
 package com.application.aws.config;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
@@ -21,14 +23,32 @@ public class AWSConfig {
     @Value("${aws.region}")
     private String region;
 
+    // Points the client at an S3-compatible server such as MinIO or LocalStack when set
+    @Value("${aws.s3.endpoint}")
+    private String endpoint;
+
+    @Value("${aws.s3.path-style-access}")
+    private boolean pathStyleAccess;
+
+    // Shared by request threads, the async file pool and multipart part uploads
+    @Value("${aws.s3.max-connections}")
+    private int maxConnections;
+
     @Bean
     public AmazonS3 amazonS3() {
         BasicAWSCredentials credentials = new BasicAWSCredentials(accessKey, secretKey);
 
-        return AmazonS3ClientBuilder
+        AmazonS3ClientBuilder builder = AmazonS3ClientBuilder
                 .standard()
-                .withRegion(Regions.fromName(region))
                 .withCredentials(new AWSStaticCredentialsProvider(credentials))
-                .build();
+                .withClientConfiguration(new ClientConfiguration().withMaxConnections(maxConnections))
+                .withPathStyleAccessEnabled(pathStyleAccess)
+                .withRequestHandlers(new S3SpanHandler());
+        if (endpoint.isBlank()) {
+            builder.withRegion(Regions.fromName(region));
+        } else {
+            builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region));
+        }
+        return builder.build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.application.aws.config;
+
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.application.config.aop.TraceContext;
+
+/**
+ * Records an {@code s3} span per S3 request made while a request is being recorded. The span
+ * ends when the response headers arrive; reading a streamed object body is not included.
+ */
+class S3SpanHandler extends RequestHandler2 {
+
+    private static final HandlerContextKey<Long> START = new HandlerContextKey<>("SpanStart");
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+        if (TraceContext.isRecording()) {
+            request.addHandlerContext(START, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        record(request, false);
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        record(request, true);
+    }
+
+    private static void record(Request<?> request, boolean failed) {
+        Long start = request.getHandlerContext(START);
+        if (start != null) {
+            String operation = request.getOriginalRequest().getClass().getSimpleName().replace("Request", "");
+            TraceContext.recordSpan("s3", operation + " " + request.getResourcePath(), start, failed);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.application.aws.service;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.application.common.exceptions.ApplicationError;
+import com.application.common.exceptions.RetryLaterException;
+import com.application.config.aop.TraceContext;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@link S3FileService} operations as {@link CompletableFuture}s, for controllers that return
+ * async responses. Calls run on a pool of their own, so a slow S3 region ties up at most
+ * {@code threads} S3 threads instead of the request pool shared with auth traffic. When the
+ * pool's queue is full new calls fail at once with a {@link RetryLaterException}.
+ */
+@Service
+public class S3AsyncFileService {
+
+    private final S3FileService s3FileService;
+    private final ThreadPoolExecutor executor;
+    private final int retryAfterSeconds;
+
+    public S3AsyncFileService(S3FileService s3FileService,
+                              @Value("${aws.s3.async.threads}") int threads,
+                              @Value("${aws.s3.async.queue-capacity}") int queueCapacity,
+                              @Value("${aws.s3.async.retry-after-seconds}") int retryAfterSeconds) {
+        AtomicInteger counter = new AtomicInteger();
+        this.s3FileService = s3FileService;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "s3-async-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<S3Object> getFile(String key) {
+        return submit(() -> s3FileService.getFile(key));
+    }
+
+    public CompletableFuture<ObjectMetadata> getFileMetadata(String key) {
+        return submit(() -> s3FileService.getFileMetadata(key));
+    }
+
+    public CompletableFuture<Boolean> deleteFile(String key) {
+        return submit(() -> s3FileService.deleteFile(key));
+    }
+
+    public CompletableFuture<List<String>> listFilesInPath(String prefix) {
+        return submit(() -> s3FileService.listFilesInPath(prefix));
+    }
+
+    public CompletableFuture<List<String>> listSubdirectoriesInPath(String prefix) {
+        return submit(() -> s3FileService.listSubdirectoriesInPath(prefix));
+    }
+
+    public CompletableFuture<String> generatePreSignedUrl(String key, int expirationTimeInMinutes) {
+        return submit(() -> s3FileService.generatePreSignedUrl(key, expirationTimeInMinutes));
+    }
+
+    public CompletableFuture<Boolean> fileExists(String key) {
+        return submit(() -> s3FileService.fileExists(key));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        try {
+            // The wrapped runnable also completes the future, so dependent stages keep the trace
+            return CompletableFuture.supplyAsync(operation, task -> executor.execute(TraceContext.wrap(task)));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new RetryLaterException(
+                    ApplicationError.FILES_BUSY, HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -2,30 +2,47 @@ package com.application.aws.service;
 
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
 import com.amazonaws.services.s3.model.ListObjectsV2Request;
 import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.application.aws.service.S3MetadataCache.ObjectInfo;
+import com.application.config.jfr.EventHashes;
+import com.application.config.jfr.S3OperationEvent;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
 @Service
 public class S3FileService {
 
+    private static final int NOT_FOUND = 404;
+
     private final AmazonS3 amazonS3;
+    private final S3MetadataCache metadataCache;
+    private final S3MultipartUploader multipartUploader;
 
     @Value("${aws.s3.bucket}")
     private String bucketName;
 
-    public S3FileService(AmazonS3 amazonS3) {
+    public S3FileService(AmazonS3 amazonS3, S3MetadataCache metadataCache, S3MultipartUploader multipartUploader) {
         this.amazonS3 = amazonS3;
+        this.metadataCache = metadataCache;
+        this.multipartUploader = multipartUploader;
     }
 
     /**
@@ -49,14 +66,33 @@ public class S3FileService {
         metadata.setContentLength(file.getSize());
         metadata.setContentType(file.getContentType());
 
-        amazonS3.putObject(
-                new PutObjectRequest(bucketName, key, file.getInputStream(), metadata)
-                        .withCannedAcl(CannedAccessControlList.Private)
-        );
+        PutObjectRequest request = new PutObjectRequest(bucketName, key, file.getInputStream(), metadata)
+                .withCannedAcl(CannedAccessControlList.Private);
+        PutObjectResult result = recorded("put", key, r -> file.getSize(), () -> amazonS3.putObject(request));
+        metadataCache.changed(key, new ObjectInfo(true, file.getSize(), result.getETag(), file.getContentType()));
 
         return key;
     }
 
+    /**
+     * Upload a stream of possibly unknown length ({@code contentLength} -1), such as a raw request
+     * body, with a specific path. Large streams are sent as a parallel multipart upload without
+     * being buffered whole.
+     */
+    public S3MultipartUploader.Result uploadStreamWithPath(String folderPath, String fileName, String contentType,
+                                                           long contentLength, InputStream body) throws IOException {
+        // Ensure folder path ends with a slash
+        if (!folderPath.endsWith("/")) {
+            folderPath += "/";
+        }
+        String key = folderPath + fileName;
+
+        S3MultipartUploader.Result result = recorded("put", key, S3MultipartUploader.Result::size,
+                () -> multipartUploader.upload(key, contentType, contentLength, body));
+        metadataCache.changed(key, new ObjectInfo(true, result.size(), result.eTag(), result.contentType()));
+        return result;
+    }
+
     /**
      * Upload file with user's UUID as the root folder (original method)
      */
@@ -68,11 +104,48 @@ public class S3FileService {
      * Get S3 object by key
      */
     public S3Object getFile(String key) {
-        if (!fileExists(key)) {
-            throw new RuntimeException("File not found with key: " + key);
+        // No HEAD first: a GET of a missing key fails just as fast, and only known-missing keys
+        // are short-circuited
+        ObjectInfo cached = metadataCache.get(key);
+        if (cached != null && !cached.exists()) {
+            throw notFound(key);
+        }
+
+        S3Object object;
+        try {
+            object = recorded("get", key, o -> o.getObjectMetadata().getContentLength(),
+                    () -> amazonS3.getObject(bucketName, key));
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == NOT_FOUND) {
+                metadataCache.remember(key, ObjectInfo.MISSING);
+                throw notFound(key);
+            }
+            throw e;
+        }
+        if (cached == null) {
+            metadataCache.remember(key, info(object.getObjectMetadata()));
+        }
+        return object;
+    }
+
+    /**
+     * Get S3 object metadata by key without downloading its content. Served from the metadata
+     * cache when it holds the content type; such metadata carries only length, ETag and type.
+     */
+    public ObjectMetadata getFileMetadata(String key) {
+        ObjectInfo cached = metadataCache.get(key);
+        if (cached != null && !cached.exists()) {
+            throw notFound(key);
+        }
+        if (cached != null && cached.contentType() != null) {
+            return metadata(cached);
         }
 
-        return amazonS3.getObject(bucketName, key);
+        ObjectMetadata metadata = head(key);
+        if (metadata == null) {
+            throw notFound(key);
+        }
+        return metadata;
     }
 
     /**
@@ -83,7 +156,11 @@ public class S3FileService {
             return false;
         }
 
-        amazonS3.deleteObject(bucketName, key);
+        recorded("delete", key, result -> 0L, () -> {
+            amazonS3.deleteObject(bucketName, key);
+            return null;
+        });
+        metadataCache.changed(key, ObjectInfo.MISSING);
         return true;
     }
 
@@ -96,12 +173,7 @@ public class S3FileService {
             prefix += "/";
         }
 
-        ListObjectsV2Request request = new ListObjectsV2Request()
-                .withBucketName(bucketName)
-                .withPrefix(prefix)
-                .withDelimiter("/");
-
-        ListObjectsV2Result result = amazonS3.listObjectsV2(request);
+        ListObjectsV2Result result = list(prefix);
         List<String> fileNames = new ArrayList<>();
 
         // Get files in current directory
@@ -125,12 +197,7 @@ public class S3FileService {
             prefix += "/";
         }
 
-        ListObjectsV2Request request = new ListObjectsV2Request()
-                .withBucketName(bucketName)
-                .withPrefix(prefix)
-                .withDelimiter("/");
-
-        ListObjectsV2Result result = amazonS3.listObjectsV2(request);
+        ListObjectsV2Result result = list(prefix);
         List<String> subDirectories = new ArrayList<>();
 
         // Get subdirectories
@@ -156,13 +223,125 @@ public class S3FileService {
         expTimeMillis += 1000L * 60 * expirationTimeInMinutes;
         expiration.setTime(expTimeMillis);
 
-        return amazonS3.generatePresignedUrl(bucketName, key, expiration).toString();
+        return recorded("presign", key, url -> 0L,
+                () -> amazonS3.generatePresignedUrl(bucketName, key, expiration)).toString();
     }
 
     /**
      * Check if a file exists
      */
     public boolean fileExists(String key) {
-        return amazonS3.doesObjectExist(bucketName, key);
+        ObjectInfo cached = metadataCache.get(key);
+        if (cached != null) {
+            return cached.exists();
+        }
+        return head(key) != null;
+    }
+
+    public S3MetadataCacheStats metadataCacheStats() {
+        return metadataCache.stats();
+    }
+
+    public List<S3UploadStatus> uploads() {
+        return multipartUploader.uploads();
+    }
+
+    /**
+     * One level of the prefix. The objects it returns are put in the metadata cache, so the
+     * reads and deletes that usually follow a listing need no HEAD.
+     */
+    private ListObjectsV2Result list(String prefix) {
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withPrefix(prefix)
+                .withDelimiter("/");
+
+        ListObjectsV2Result result = recorded("list", prefix, S3FileService::listedBytes,
+                () -> amazonS3.listObjectsV2(request));
+        Map<String, ObjectInfo> listed = new LinkedHashMap<>();
+        for (S3ObjectSummary summary : result.getObjectSummaries()) {
+            listed.put(summary.getKey(), new ObjectInfo(true, summary.getSize(), summary.getETag(), null));
+        }
+        metadataCache.rememberAll(listed);
+        return result;
+    }
+
+    /**
+     * HEADs the object and caches the answer. Null when the object does not exist.
+     */
+    private ObjectMetadata head(String key) {
+        ObjectMetadata metadata;
+        try {
+            metadata = recorded("head", key, ObjectMetadata::getContentLength,
+                    () -> amazonS3.getObjectMetadata(bucketName, key));
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == NOT_FOUND) {
+                metadataCache.remember(key, ObjectInfo.MISSING);
+                return null;
+            }
+            throw e;
+        }
+        metadataCache.remember(key, info(metadata));
+        return metadata;
+    }
+
+    private static ObjectInfo info(ObjectMetadata metadata) {
+        return new ObjectInfo(true, metadata.getContentLength(), metadata.getETag(), metadata.getContentType());
+    }
+
+    private static ObjectMetadata metadata(ObjectInfo info) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(info.size());
+        metadata.setContentType(info.contentType());
+        if (info.eTag() != null) {
+            metadata.setHeader(Headers.ETAG, info.eTag());
+        }
+        return metadata;
+    }
+
+    private static RuntimeException notFound(String key) {
+        return new RuntimeException("File not found with key: " + key);
+    }
+
+    private static long listedBytes(ListObjectsV2Result result) {
+        return result.getObjectSummaries().stream().mapToLong(S3ObjectSummary::getSize).sum();
+    }
+
+    @FunctionalInterface
+    private interface S3Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * Runs one S3 call inside an {@link S3OperationEvent}. The event's fields are only filled
+     * in when a recording wants it, so outside a recording this costs a single check.
+     */
+    private static <T, E extends Exception> T recorded(String operation, String key, ToLongFunction<T> size,
+                                                       S3Call<T, E> call) throws E {
+        S3OperationEvent event = new S3OperationEvent();
+        event.begin();
+        T result;
+        try {
+            result = call.call();
+        } catch (Exception e) {
+            event.end();
+            if (event.shouldCommit()) {
+                commit(event, operation, key, 0L, e.getClass().getSimpleName());
+            }
+            throw e;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            commit(event, operation, key, result == null ? 0L : size.applyAsLong(result), "ok");
+        }
+        return result;
+    }
+
+    private static void commit(S3OperationEvent event, String operation, String key, long size, String outcome) {
+        event.operation = operation;
+        event.keyHash = EventHashes.of(key);
+        event.size = size;
+        event.outcome = outcome;
+        event.commit();
     }
 }
\ No newline at end of file
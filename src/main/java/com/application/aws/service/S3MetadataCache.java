@@ -0,0 +1,228 @@
+package com.application.aws.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.application.common.enums.Constants.S3_METADATA_PREFIX;
+
+/**
+ * Existence, size, ETag and content type of S3 objects, so {@link S3FileService} does not have
+ * to send a HEAD before every read, delete or pre-signed URL.
+ * <p>
+ * Lookups go to a bounded local map first and to Redis second; only a miss in both reaches S3.
+ * Missing objects are cached too, for a shorter time, so repeated checks of absent keys stay
+ * cheap. Uploads and deletes overwrite the Redis entry and publish the key on {@link #CHANNEL},
+ * which drops the stale local copy on every node.
+ * <p>
+ * What a read observed is only added, never overwritten, so a slow HEAD cannot replace the
+ * entry a concurrent upload or delete just wrote. For the same reason a read is only kept
+ * locally when no invalidation arrived while it was being stored.
+ */
+@Component
+public class S3MetadataCache implements MessageListener {
+
+    public static final String CHANNEL = "s3-metadata";
+
+    private static final String ABSENT = "0";
+    private static final String PRESENT = "1";
+    private static final char SEPARATOR = '\t';
+
+    /**
+     * What is known about one object. {@code contentType} is null when the entry came from a
+     * listing, which does not report it.
+     */
+    public record ObjectInfo(boolean exists, long size, String eTag, String contentType) {
+
+        static final ObjectInfo MISSING = new ObjectInfo(false, 0L, null, null);
+    }
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final int maxSize;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public S3MetadataCache(RedisTemplate<String, String> redisTemplate,
+                           @Value("${aws.s3.metadata-cache.max-size}") int maxSize,
+                           @Value("${aws.s3.metadata-cache.ttl-seconds}") long ttlSeconds,
+                           @Value("${aws.s3.metadata-cache.negative-ttl-seconds}") long negativeTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.negativeTtl = Duration.ofSeconds(negativeTtlSeconds);
+    }
+
+    /**
+     * Cached state of the key, or null when neither tier knows it.
+     */
+    public ObjectInfo get(String key) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAt() > now) {
+                localHits.incrementAndGet();
+                return entry.info();
+            }
+            entries.remove(key, entry);
+        }
+
+        long generation = invalidations.get();
+        String value = redisTemplate.opsForValue().get(S3_METADATA_PREFIX + key);
+        if (value == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        redisHits.incrementAndGet();
+        ObjectInfo info = decode(value);
+        // The Redis TTL is not read back; the local copy lives for the full period, which is at
+        // most one extra period of staleness for objects changed outside the application
+        putLocal(key, info, now, generation);
+        return info;
+    }
+
+    /**
+     * Stores what a HEAD or GET just returned, unless Redis already holds an entry for the key.
+     * Nothing changed in S3, so other nodes are not told.
+     */
+    public void remember(String key, ObjectInfo info) {
+        long generation = invalidations.get();
+        Boolean stored = redisTemplate.opsForValue().setIfAbsent(S3_METADATA_PREFIX + key, encode(info), ttlOf(info));
+        if (Boolean.TRUE.equals(stored)) {
+            putLocal(key, info, System.currentTimeMillis(), generation);
+        }
+    }
+
+    /**
+     * Stores the objects of one listing in a single pipelined round trip, each only if Redis does
+     * not hold an entry for it yet.
+     */
+    public void rememberAll(Map<String, ObjectInfo> infos) {
+        if (infos.isEmpty()) {
+            return;
+        }
+        long generation = invalidations.get();
+        List<Object> stored = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            infos.forEach((key, info) -> connection.stringCommands().set(
+                    (S3_METADATA_PREFIX + key).getBytes(StandardCharsets.UTF_8),
+                    encode(info).getBytes(StandardCharsets.UTF_8),
+                    Expiration.from(ttlOf(info)), RedisStringCommands.SetOption.ifAbsent()));
+            return null;
+        });
+        long now = System.currentTimeMillis();
+        Iterator<Object> results = stored.iterator();
+        for (Map.Entry<String, ObjectInfo> listed : infos.entrySet()) {
+            if (Boolean.TRUE.equals(results.next())) {
+                putLocal(listed.getKey(), listed.getValue(), now, generation);
+            }
+        }
+    }
+
+    /**
+     * Records a write or delete made through this application, replacing whatever was cached,
+     * and tells every node to drop its local copy.
+     */
+    public void changed(String key, ObjectInfo info) {
+        invalidations.incrementAndGet();
+        redisTemplate.opsForValue().set(S3_METADATA_PREFIX + key, encode(info), ttlOf(info));
+        putLocal(key, info, System.currentTimeMillis());
+        redisTemplate.convertAndSend(CHANNEL, key);
+    }
+
+    public S3MetadataCacheStats stats() {
+        return S3MetadataCacheStats.builder()
+                .localHits(localHits.get())
+                .redisHits(redisHits.get())
+                .misses(misses.get())
+                .localEntries(entries.size())
+                .build();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        invalidations.incrementAndGet();
+        entries.remove(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private Entry putLocal(String key, ObjectInfo info, long now) {
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        Entry entry = new Entry(info, now + ttlOf(info).toMillis());
+        entries.put(key, entry);
+        return entry;
+    }
+
+    // Kept only if no invalidation arrived since the caller took the generation, also one that
+    // slipped in between the check and the put
+    private void putLocal(String key, ObjectInfo info, long now, long generation) {
+        if (invalidations.get() != generation) {
+            return;
+        }
+        Entry entry = putLocal(key, info, now);
+        if (invalidations.get() != generation) {
+            entries.remove(key, entry);
+        }
+    }
+
+    private Duration ttlOf(ObjectInfo info) {
+        return info.exists() ? ttl : negativeTtl;
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    // "0" for a missing object, otherwise "1", size, ETag and content type separated by tabs
+    static String encode(ObjectInfo info) {
+        if (!info.exists()) {
+            return ABSENT;
+        }
+        return PRESENT + SEPARATOR + info.size() + SEPARATOR + nullToEmpty(info.eTag())
+                + SEPARATOR + nullToEmpty(info.contentType());
+    }
+
+    static ObjectInfo decode(String value) {
+        if (!value.startsWith(PRESENT)) {
+            return ObjectInfo.MISSING;
+        }
+        String[] parts = value.split(String.valueOf(SEPARATOR), 4);
+        return new ObjectInfo(true, Long.parseLong(parts[1]), emptyToNull(parts[2]), emptyToNull(parts[3]));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private record Entry(ObjectInfo info, long expiresAt) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.application.aws.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class S3MetadataCacheStats {
+
+    private long localHits;
+    private long redisHits;
+    private long misses;
+    private int localEntries;
+}
@@ -0,0 +1,418 @@
+package com.application.aws.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.application.common.exceptions.ApplicationError;
+import com.application.common.exceptions.CustomException;
+import com.application.common.exceptions.RetryLaterException;
+import com.application.config.aop.TraceContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uploads a stream of unknown length, such as a raw request body, without holding it whole. The
+ * caller's thread reads fixed-size parts while a dedicated pool sends earlier parts to S3 as a
+ * multipart upload.
+ * <p>
+ * Part buffers come from one pool of {@code max-buffers} shared by all uploads; a reader that
+ * finds the pool empty waits for a part to finish, which bounds heap use and slows fast clients
+ * down to S3's pace. One upload holds at most {@code max-buffers-per-upload} of them, so a few
+ * slow clients cannot take the whole pool, and a reader that gets none within
+ * {@code buffer-wait-seconds} is turned away with a 503 rather than parked. A stream that fits in the first part is sent with a single {@code PUT}.
+ * Failed or interrupted uploads are aborted, and a scheduled sweep aborts uploads left behind by
+ * crashed nodes.
+ * <p>
+ * Streams longer than {@code max-size-mb} are refused: up front when the caller knows the length,
+ * otherwise as soon as the limit is crossed, which aborts the parts sent so far. The content type
+ * is stored only if it is on the {@code content-types} list, as it is served back with the object.
+ */
+@Slf4j
+@Component
+public class S3MultipartUploader {
+
+    // S3 rejects smaller parts, except for the last one
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    public record Result(String key, long size, String eTag, int parts, String contentType) {
+    }
+
+    private final AmazonS3 amazonS3;
+    private final String bucketName;
+    private final int partSize;
+    private final long maxSize;
+    private final Set<String> contentTypes;
+    private final Duration abandonedAfter;
+    private final Semaphore buffers;
+    private final int maxBuffersPerUpload;
+    private final long bufferWaitMillis;
+    private final int retryAfterSeconds;
+    private final ConcurrentLinkedQueue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, Upload> active = new ConcurrentHashMap<>();
+
+    public S3MultipartUploader(AmazonS3 amazonS3,
+                               @Value("${aws.s3.bucket}") String bucketName,
+                               @Value("${aws.s3.multipart.part-size-mb}") int partSizeMb,
+                               @Value("${aws.s3.multipart.max-buffers}") int maxBuffers,
+                               @Value("${aws.s3.multipart.max-buffers-per-upload}") int maxBuffersPerUpload,
+                               @Value("${aws.s3.multipart.buffer-wait-seconds}") long bufferWaitSeconds,
+                               @Value("${aws.s3.multipart.retry-after-seconds}") int retryAfterSeconds,
+                               @Value("${aws.s3.multipart.threads}") int threads,
+                               @Value("${aws.s3.multipart.abandoned-after-minutes}") long abandonedAfterMinutes,
+                               @Value("${aws.s3.upload.max-size-mb}") long maxSizeMb,
+                               @Value("${aws.s3.upload.content-types}") Set<String> contentTypes) {
+        AtomicInteger counter = new AtomicInteger();
+        this.amazonS3 = amazonS3;
+        this.bucketName = bucketName;
+        this.partSize = Math.max(MIN_PART_SIZE, partSizeMb * 1024 * 1024);
+        this.abandonedAfter = Duration.ofMinutes(abandonedAfterMinutes);
+        this.maxSize = maxSizeMb * 1024 * 1024;
+        this.contentTypes = Set.copyOf(contentTypes);
+        this.buffers = new Semaphore(maxBuffers);
+        this.maxBuffersPerUpload = Math.max(1, Math.min(maxBuffersPerUpload, maxBuffers));
+        this.bufferWaitMillis = TimeUnit.SECONDS.toMillis(bufferWaitSeconds);
+        this.retryAfterSeconds = retryAfterSeconds;
+        // Unbounded queue: the buffer pool already caps how many parts can be waiting
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "s3-part-upload-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Uploads {@code body} under {@code key}. {@code contentLength} is the length the client
+     * announced, or -1 when unknown.
+     */
+    public Result upload(String key, String contentType, long contentLength, InputStream body) throws IOException {
+        if (contentLength > maxSize) {
+            throw tooLarge();
+        }
+        String storedType = storedContentType(contentType);
+        Semaphore share = new Semaphore(maxBuffersPerUpload);
+        byte[] first = acquireBuffer(share);
+        int length;
+        try {
+            length = body.readNBytes(first, 0, partSize);
+        } catch (IOException e) {
+            releaseBuffer(first, share);
+            throw e;
+        }
+        if (length == 0) {
+            releaseBuffer(first, share);
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (length > maxSize) {
+            releaseBuffer(first, share);
+            throw tooLarge();
+        }
+        if (length < partSize) {
+            try {
+                return putSingle(key, storedType, first, length);
+            } finally {
+                releaseBuffer(first, share);
+            }
+        }
+        return putMultipart(key, storedType, body, first, share);
+    }
+
+    /**
+     * Uploads in progress on this node, oldest first.
+     */
+    public List<S3UploadStatus> uploads() {
+        return active.values().stream()
+                .map(Upload::status)
+                .sorted((a, b) -> a.getStartedAt().compareTo(b.getStartedAt()))
+                .toList();
+    }
+
+    /**
+     * Aborts multipart uploads that were started long enough ago that no node can still be
+     * working on them. Their parts are otherwise kept, and billed, until aborted.
+     */
+    @Scheduled(fixedDelayString = "${aws.s3.multipart.abandoned-sweep-interval}")
+    public void abortAbandoned() {
+        Date cutoff = Date.from(Instant.now().minus(abandonedAfter));
+        ListMultipartUploadsRequest request = new ListMultipartUploadsRequest(bucketName);
+        int aborted = 0;
+        MultipartUploadListing listing;
+        do {
+            listing = amazonS3.listMultipartUploads(request);
+            for (MultipartUpload upload : listing.getMultipartUploads()) {
+                if (upload.getInitiated().before(cutoff) && !active.containsKey(upload.getUploadId())) {
+                    amazonS3.abortMultipartUpload(
+                            new AbortMultipartUploadRequest(bucketName, upload.getKey(), upload.getUploadId()));
+                    aborted++;
+                }
+            }
+            request.setKeyMarker(listing.getNextKeyMarker());
+            request.setUploadIdMarker(listing.getNextUploadIdMarker());
+        } while (listing.isTruncated());
+        if (aborted > 0) {
+            log.info("Aborted {} abandoned multipart uploads", aborted);
+        }
+    }
+
+    private Result putSingle(String key, String contentType, byte[] buffer, int length) {
+        ObjectMetadata metadata = metadata(contentType);
+        metadata.setContentLength(length);
+        String eTag = amazonS3.putObject(
+                new PutObjectRequest(bucketName, key, new ByteArrayInputStream(buffer, 0, length), metadata)
+                        .withCannedAcl(CannedAccessControlList.Private)
+        ).getETag();
+        return new Result(key, length, eTag, 1, contentType);
+    }
+
+    private Result putMultipart(String key, String contentType, InputStream body, byte[] first, Semaphore share)
+            throws IOException {
+        String uploadId;
+        try {
+            uploadId = amazonS3.initiateMultipartUpload(
+                    new InitiateMultipartUploadRequest(bucketName, key, metadata(contentType))
+                            .withCannedACL(CannedAccessControlList.Private)
+            ).getUploadId();
+        } catch (RuntimeException e) {
+            releaseBuffer(first, share);
+            throw e;
+        }
+
+        Upload upload = new Upload(key, uploadId, Instant.now(), share);
+        active.put(uploadId, upload);
+        List<CompletableFuture<PartETag>> parts = new ArrayList<>();
+        try {
+            byte[] buffer = first;
+            int length = partSize;
+            while (true) {
+                upload.bytesRead.addAndGet(length);
+                parts.add(uploadPart(upload, parts.size() + 1, buffer, length));
+                // Stop reading once a part has failed, the upload is lost anyway
+                if (length < partSize || upload.failed) {
+                    break;
+                }
+                buffer = acquireBuffer(share);
+                try {
+                    length = body.readNBytes(buffer, 0, partSize);
+                } catch (IOException e) {
+                    releaseBuffer(buffer, share);
+                    throw e;
+                }
+                if (length == 0) {
+                    releaseBuffer(buffer, share);
+                    break;
+                }
+                if (upload.bytesRead.get() + length > maxSize) {
+                    releaseBuffer(buffer, share);
+                    throw tooLarge();
+                }
+            }
+
+            List<PartETag> partETags = await(parts);
+            String eTag = amazonS3.completeMultipartUpload(
+                    new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags)).getETag();
+            long size = upload.bytesRead.get();
+            log.debug("Uploaded {} bytes to {} in {} parts", size, key, partETags.size());
+            return new Result(key, size, eTag, partETags.size(), contentType);
+        } catch (IOException | RuntimeException e) {
+            abort(upload, parts);
+            throw e;
+        } finally {
+            active.remove(uploadId);
+        }
+    }
+
+    private CompletableFuture<PartETag> uploadPart(Upload upload, int partNumber, byte[] buffer, int length) {
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucketName)
+                .withKey(upload.key)
+                .withUploadId(upload.uploadId)
+                .withPartNumber(partNumber)
+                .withPartSize(length)
+                .withInputStream(new ByteArrayInputStream(buffer, 0, length));
+        CompletableFuture<PartETag> part;
+        try {
+            part = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return amazonS3.uploadPart(request).getPartETag();
+                } finally {
+                    releaseBuffer(buffer, upload.share);
+                }
+            }, task -> executor.execute(TraceContext.wrap(task)));
+        } catch (RejectedExecutionException e) {
+            releaseBuffer(buffer, upload.share);
+            throw e;
+        }
+        return part.whenComplete((partETag, error) -> {
+            if (error == null) {
+                upload.bytesUploaded.addAndGet(length);
+                upload.partsUploaded.incrementAndGet();
+            } else {
+                upload.failed = true;
+            }
+        });
+    }
+
+    private static List<PartETag> await(List<CompletableFuture<PartETag>> parts) {
+        List<PartETag> partETags = new ArrayList<>(parts.size());
+        try {
+            for (CompletableFuture<PartETag> part : parts) {
+                partETags.add(part.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return partETags;
+    }
+
+    /**
+     * Waits for parts still in flight, so none lands after the abort, then aborts. Should the
+     * abort itself fail, {@link #abortAbandoned()} picks the upload up later.
+     */
+    private void abort(Upload upload, List<CompletableFuture<PartETag>> parts) {
+        CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .join();
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, upload.key, upload.uploadId));
+        } catch (RuntimeException e) {
+            log.warn("Could not abort multipart upload {} of {}", upload.uploadId, upload.key, e);
+        }
+    }
+
+    /**
+     * Takes a buffer from the upload's share, waiting for its own parts to finish, and then from
+     * the node's pool, waiting at most {@code buffer-wait-seconds} for other uploads.
+     */
+    private byte[] acquireBuffer(Semaphore share) throws InterruptedIOException {
+        boolean acquired;
+        try {
+            share.acquire();
+            try {
+                acquired = buffers.tryAcquire(bufferWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                share.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an upload buffer");
+        }
+        if (!acquired) {
+            share.release();
+            throw new RetryLaterException(ApplicationError.UPLOADS_BUSY, HttpStatus.SERVICE_UNAVAILABLE,
+                    retryAfterSeconds);
+        }
+        byte[] buffer = freeBuffers.poll();
+        return buffer != null ? buffer : new byte[partSize];
+    }
+
+    private void releaseBuffer(byte[] buffer, Semaphore share) {
+        freeBuffers.offer(buffer);
+        buffers.release();
+        share.release();
+    }
+
+    // Only the type and a known charset are kept, so no client-supplied parameter is stored
+    private String storedContentType(String contentType) {
+        if (contentType != null) {
+            try {
+                MediaType mediaType = MediaType.parseMediaType(contentType);
+                String type = mediaType.getType() + "/" + mediaType.getSubtype();
+                if (contentTypes.contains(type)) {
+                    Charset charset = mediaType.getCharset();
+                    return charset == null ? type : type + ";charset=" + charset.name();
+                }
+            } catch (IllegalArgumentException e) {
+                // Unparseable type or unknown charset, stored as opaque bytes below
+            }
+        }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    private static CustomException tooLarge() {
+        return new CustomException(ApplicationError.FILE_TOO_LARGE, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    private static ObjectMetadata metadata(String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        return metadata;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class Upload {
+
+        final String key;
+        final String uploadId;
+        final Instant startedAt;
+        final Semaphore share;
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong bytesUploaded = new AtomicLong();
+        final AtomicInteger partsUploaded = new AtomicInteger();
+        volatile boolean failed;
+
+        Upload(String key, String uploadId, Instant startedAt, Semaphore share) {
+            this.key = key;
+            this.uploadId = uploadId;
+            this.startedAt = startedAt;
+            this.share = share;
+        }
+
+        S3UploadStatus status() {
+            return S3UploadStatus.builder()
+                    .key(key)
+                    .uploadId(uploadId)
+                    .startedAt(startedAt)
+                    .bytesRead(bytesRead.get())
+                    .bytesUploaded(bytesUploaded.get())
+                    .partsUploaded(partsUploaded.get())
+                    .build();
+        }
+    }
+}
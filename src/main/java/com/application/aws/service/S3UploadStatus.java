@@ -0,0 +1,22 @@
+package com.application.aws.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class S3UploadStatus {
+
+    private String key;
+    private String uploadId;
+    private Instant startedAt;
+    private long bytesRead;
+    private long bytesUploaded;
+    private int partsUploaded;
+}
@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("auth")
@@ -38,8 +39,10 @@ public class AuthController {
 
     @PostMapping(path = "/login")
     @Operation(summary = "User Authentication", description = "Authenticate and log in a user (either a regular user or a brand).")
-    public ResponseEntity<?> login(@RequestBody AuthorizationRequest authorizationRequest, @RequestHeader(required = false) Locale locale) {
-        return new ResponseEntity<>(authService.login(authorizationRequest, locale), HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<Response>> login(@RequestBody AuthorizationRequest authorizationRequest, HttpServletRequest request,
+                                                  @RequestHeader(required = false) Locale locale) {
+        return authService.login(authorizationRequest, request.getRemoteAddr(), locale)
+                .thenApply(response -> new ResponseEntity<>(response, HttpStatus.OK));
     }
 
     @GetMapping("/refresh-token")
@@ -56,6 +59,12 @@ public class AuthController {
         return new ResponseEntity<>(authService.logout(request, locale), HttpStatus.OK);
     }
 
+    @GetMapping("/logout-all")
+    @Operation(summary = "Logout Everywhere", description = "Revoke every session of the signed-in user, on all devices. Requires a valid access token.")
+    public ResponseEntity<Response> logoutEverywhere(@RequestHeader(required = false) Locale locale) {
+        return new ResponseEntity<>(authService.logoutEverywhere(locale), HttpStatus.OK);
+    }
+
     @GetMapping(path = "user/{token}/activate")
     @Operation(summary = "User activation", description = "Activate a previously signed up user")
     public ResponseEntity<Response> activateUser(@PathVariable String token, @RequestHeader(required = false) Locale locale) {
@@ -6,17 +6,20 @@ import com.application.common.response.Response;
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 public interface AuthService {
 
     //
 
-    Response login(AuthorizationRequest registerRequest, Locale locale);
+    CompletableFuture<Response> login(AuthorizationRequest registerRequest, String clientIp, Locale locale);
 
     Response signup(RegisterUserRequest registerUserRequest, Locale locale);
 
     Response logout(HttpServletRequest request, Locale locale);
 
+    Response logoutEverywhere(Locale locale);
+
     Response refreshToken(HttpServletRequest request, Locale locale);
 
     Response activateUser(String token, Locale locale);
@@ -5,30 +5,35 @@ import com.application.baseuser.request.RegisterUserRequest;
 import com.application.baseuser.response.AuthenticationResponse;
 import com.application.common.enums.RoleType;
 import com.application.common.enums.URLS;
-import com.application.common.exceptions.ApplicationException;
-import com.application.common.exceptions.ApplicationError;
+import com.application.common.exceptions.RetryLaterException;
 import com.application.common.response.Response;
+import com.application.common.response.ResponseCatalog;
 import com.application.common.response.ResponseCode;
+import com.application.config.jwt.IssuedTokens;
 import com.application.config.jwt.JwtService;
+import com.application.config.jwt.JwtUtils;
+import com.application.config.jwt.UserSecurityVersions;
 import com.application.config.mail.EmailDetails;
-import com.application.config.mail.EmailEncryptionUtil;
-import com.application.config.mail.EmailServiceImpl;
+import com.application.config.mail.EmailOutboxService;
+import com.application.config.mail.EmailTemplateEngine;
+import com.application.config.password.PasswordVerifier;
 import com.application.user.User;
 import com.application.user.UserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.MessageSource;
 import org.springframework.http.HttpHeaders;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static com.application.common.response.ResponseCode.BAD_USER_CREDENTIALS;
 import static com.application.common.response.ResponseCode.LOGOUT_SUCCESSFULLY;
@@ -57,15 +62,30 @@ public class AuthServiceImpl implements AuthService {
     @Autowired
     private JwtService jwtService;
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private JwtUtils jwtUtils;
+    @Autowired
+    private PasswordVerifier passwordVerifier;
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private EmailServiceImpl emailService;
+    private EmailOutboxService emailOutboxService;
+    @Autowired
+    private EmailTemplateEngine emailTemplateEngine;
+    @Autowired
+    private ResponseCatalog responseCatalog;
+    @Autowired
+    private UserSecurityVersions userSecurityVersions;
+    @Autowired
+    private LoginThrottle loginThrottle;
     @Autowired
-    private MessageSource messageSource;
+    private ActivationTokens activationTokens;
+    // Redis and database work after the hash check, kept off the CPU-sized password pool
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor applicationTaskExecutor;
 
     @Override
+    @Transactional
     public Response signup(RegisterUserRequest registerUserRequest, Locale locale) {
 
         return baseUserRepository.findByEmail(registerUserRequest.getEmail())
@@ -86,120 +106,130 @@ public class AuthServiceImpl implements AuthService {
                             .user(baseUser)
                             .build();
                     userRepository.save(user);
-                    try {
-                        sendActivationUserEmail(registerUserRequest.getEmail());
-                    } catch (Exception e) {
-                        return buildResponse(USER_NOT_REGISTERED, locale);
-                    }
+                    enqueueActivationEmail(baseUser, locale);
                     return buildResponse(SIGNUP_SUCCESS, locale);
                 });
     }
 
     @Override
-    public Response login(AuthorizationRequest registerRequest, Locale locale) {
+    public CompletableFuture<Response> login(AuthorizationRequest registerRequest, String clientIp, Locale locale) {
 
-        return baseUserRepository.findByEmail(registerRequest.getEmail())
+        String email = registerRequest.getEmail();
+        try {
+            loginThrottle.check(email, clientIp);
+        } catch (RetryLaterException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return baseUserRepository.findByEmail(email)
                 .map(user -> {
                     if (!user.isEnabled()) {
-                        return buildResponse(USER_DISABLED, locale);
-                    }
-                    try {
-                        authenticationManager.authenticate(
-                                new UsernamePasswordAuthenticationToken(
-                                        registerRequest.getEmail(),
-                                        registerRequest.getPassword()
-                                ));
-                        return buildResponseWithData(
-                                AuthenticationResponse.builder()
-                                        .accessToken(jwtService.generateAccessToken(user))
-                                        .refreshToken(jwtService.generateRefreshToken(user))
-                                        .build(),
-                                SIGN_IN_SUCCESSFUL, locale
-                        );
-                    } catch (AuthenticationException e) {
-                        return buildResponse(BAD_USER_CREDENTIALS, locale);
+                        loginThrottle.recordFailure(email, clientIp);
+                        return CompletableFuture.completedFuture(buildResponse(USER_DISABLED, locale));
                     }
+                    return passwordVerifier.verify(registerRequest.getPassword(), user.getPassword())
+                            .thenApplyAsync(verification -> {
+                                if (!verification.matches()) {
+                                    loginThrottle.recordFailure(email, clientIp);
+                                    return buildResponse(BAD_USER_CREDENTIALS, locale);
+                                }
+                                loginThrottle.recordSuccess(email);
+                                if (verification.upgradedHash() != null) {
+                                    baseUserRepository.updatePassword(user.getId(), verification.upgradedHash());
+                                }
+                                IssuedTokens tokens = jwtService.issueTokens(user);
+                                return buildResponseWithData(
+                                        AuthenticationResponse.builder()
+                                                .accessToken(tokens.accessToken())
+                                                .refreshToken(tokens.refreshToken())
+                                                .build(),
+                                        SIGN_IN_SUCCESSFUL, locale
+                                );
+                            }, applicationTaskExecutor);
                 })
-                .orElseGet(() ->
-                        buildResponse(USER_NOT_REGISTERED, locale)
-                );
+                .orElseGet(() -> {
+                    loginThrottle.recordFailure(email, clientIp);
+                    return CompletableFuture.completedFuture(buildResponse(USER_NOT_REGISTERED, locale));
+                });
     }
 
     @Override
     public Response refreshToken(HttpServletRequest request, Locale locale) {
 
         String token = request.getHeader(HttpHeaders.AUTHORIZATION).substring(7);
-        String email = jwtService.extractUsername(token);
-        return baseUserRepository.findByEmail(email)
-                .map(baseUser -> {
-                    jwtService.revokeTokens(baseUser.getEmail());
-                    return buildResponseWithData(
-                            AuthenticationResponse.builder()
-                                    .accessToken(jwtService.generateAccessToken(baseUser))
-                                    .refreshToken(jwtService.generateRefreshToken(baseUser))
-                                    .build(),
-                            REFRESH_TOKEN_FETCHED, locale
-                    );
-                })
+        Claims claims = jwtService.verify(token);
+        String userUuid = claims.getSubject();
+        if (userUuid == null || !jwtService.isTokenCurrent(userUuid, claims)) {
+            return buildResponse(TOKEN_NOT_VALID, locale);
+        }
+        return Optional.ofNullable(baseUserRepository.findByUuid(userUuid))
+                .flatMap(baseUser -> jwtService.rotateTokens(token, baseUser))
+                .map(tokens -> buildResponseWithData(
+                        AuthenticationResponse.builder()
+                                .accessToken(tokens.accessToken())
+                                .refreshToken(tokens.refreshToken())
+                                .build(),
+                        REFRESH_TOKEN_FETCHED, locale
+                ))
                 .orElseGet(() -> buildResponse(TOKEN_NOT_VALID, locale));
     }
 
     @Override
     public Response logout(HttpServletRequest request, Locale locale) {
         String token = request.getHeader(HttpHeaders.AUTHORIZATION).substring(7);
-        String email = jwtService.extractUsername(token);
-        return baseUserRepository.findByEmail(email)
-                .map(baseUser -> {
-                    jwtService.revokeTokens(baseUser.getEmail());
-                    return buildResponse(LOGOUT_SUCCESSFULLY, locale);
-                })
-                .orElseGet(() -> buildResponse(TOKEN_NOT_VALID, locale));
+        String userUuid = jwtService.extractUserUuid(token);
+        if (userUuid == null) {
+            return buildResponse(TOKEN_NOT_VALID, locale);
+        }
+        jwtService.revokeSession(token, userUuid);
+        return buildResponse(LOGOUT_SUCCESSFULLY, locale);
+    }
+
+    @Override
+    public Response logoutEverywhere(Locale locale) {
+        // Authenticated by the JWT filter, so the token is known, unrevoked and current
+        jwtService.revokeTokens(jwtUtils.getCurrentUserUuid());
+        return buildResponse(LOGOUT_SUCCESSFULLY, locale);
     }
 
-    @SneakyThrows
     @Override
     public Response activateUser(String token, Locale locale) {
-        String email = EmailEncryptionUtil.decrypt(token);
-        return baseUserRepository.findByEmail(email)
+        Optional<String> userUuid = activationTokens.verify(token);
+        if (userUuid.isEmpty()) {
+            return buildResponse(TOKEN_NOT_VALID, locale);
+        }
+        return Optional.ofNullable(baseUserRepository.findByUuid(userUuid.get()))
                 .map(baseUser -> {
-                    baseUser.setActive(Boolean.TRUE);
-                    baseUserRepository.save(baseUser);
+                    // Repeated clicks on the same link must not bump the security version again
+                    if (!baseUser.isActive()) {
+                        baseUser.setActive(Boolean.TRUE);
+                        baseUser.setSecurityVersion(baseUser.getSecurityVersion() + 1);
+                        baseUserRepository.save(baseUser);
+                        userSecurityVersions.invalidate(baseUser.getUuid());
+                    }
                     return buildResponse(USER_ACTIVATED_SUCCESSFULLY, locale);
                 })
                 .orElseGet(() -> buildResponse(ResponseCode.USER_NOT_REGISTERED, locale));
     }
 
-    @Async
-    protected void sendActivationUserEmail(String toEmail) {
-        try {
-            String encryptedEmail = EmailEncryptionUtil.encrypt(toEmail);
-            String activationLink = appUrl + URLS.USER_ACTIVATION.format(encryptedEmail);
-            String emailBody = String.format(ACTIVATE_USER.getBodyTemplate(), activationLink);
-
-            EmailDetails emailDetails = EmailDetails.builder()
-                    .recipient(toEmail)
-                    .subject(ACTIVATE_USER.getName())
-                    .msgBody(emailBody)
-                    .build();
-
-            emailService.sendMail(emailDetails);
-        } catch (Exception e) {
-            throw new ApplicationException(ApplicationError.EMAIL_SENDING_FAILED);
-        }
+    private void enqueueActivationEmail(BaseUser baseUser, Locale locale) {
+        String activationLink = appUrl + URLS.USER_ACTIVATION.format(activationTokens.issue(baseUser.getUuid()));
+        EmailTemplateEngine.RenderedEmail email =
+                emailTemplateEngine.render(ACTIVATE_USER, locale, Map.of("activationLink", activationLink));
+
+        EmailDetails emailDetails = EmailDetails.builder()
+                .recipient(baseUser.getEmail())
+                .subject(email.subject())
+                .msgBody(email.body())
+                .build();
+
+        emailOutboxService.enqueue(emailDetails);
     }
 
     Response buildResponse(ResponseCode code, Locale locale) {
-        return Response.builder()
-                .code(Integer.valueOf(code.getCode()))
-                .message(messageSource.getMessage(String.valueOf(Integer.valueOf(code.getCode())), null, locale))
-                .build();
+        return responseCatalog.get(code, locale);
     }
 
     public <T> Response buildResponseWithData(T data, ResponseCode code, Locale locale) {
-        return Response.builder()
-                .data(data)
-                .code(Integer.valueOf(code.getCode()))
-                .message(messageSource.getMessage(String.valueOf(Integer.valueOf(code.getCode())), null, locale))
-                .build();
+        return responseCatalog.withData(data, code, locale);
     }
-}
\ No newline at end of file
+}
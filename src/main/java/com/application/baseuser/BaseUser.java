@@ -43,6 +43,9 @@ public class BaseUser implements UserDetails {
     @Column(name = "role")
     private String role;
 
+    @Column(name = "security_version", nullable = false)
+    private int securityVersion;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private Instant createdAt;
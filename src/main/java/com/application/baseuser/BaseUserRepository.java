@@ -1,7 +1,10 @@
 package com.application.baseuser;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -11,4 +14,12 @@ public interface BaseUserRepository extends JpaRepository<BaseUser, Integer> {
     Optional<BaseUser> findByEmail(String email);
 
     BaseUser findByUuid(String userUuid);
+
+    @Query("select b.securityVersion from BaseUser b where b.uuid = :userUuid")
+    Integer findSecurityVersionByUuid(String userUuid);
+
+    @Transactional
+    @Modifying
+    @Query("update BaseUser b set b.password = :password where b.id = :id")
+    int updatePassword(Integer id, String password);
 }
@@ -0,0 +1,149 @@
+package com.application.baseuser;
+
+import com.application.common.exceptions.ApplicationError;
+import com.application.common.exceptions.RetryLaterException;
+import com.application.config.RedisScripts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Brute-force protection for login. Failed attempts are counted per email and per client IP in
+ * Redis over a sliding window; a scope that reaches its limit is locked for a time that doubles
+ * with every further failure. Locks this node has already seen are kept in a local map, so
+ * repeated attempts against a locked email or from a locked IP are turned away without any
+ * Redis, database or hashing work.
+ * <p>
+ * The client IP is {@code ServletRequest#getRemoteAddr()}, which is only the real client when
+ * {@code server.forward-headers-strategy} resolves it from the proxy's forwarded headers.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final String PREFIX = "lt:";
+
+    private static final RedisScript<List<Object>> CHECK = RedisScripts.list("scripts/login-throttle-check.lua");
+    private static final RedisScript<List<Object>> FAIL = RedisScripts.list("scripts/login-throttle-fail.lua");
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final long windowMillis;
+    private final int maxFailuresPerEmail;
+    private final int maxFailuresPerIp;
+    private final long baseLockMillis;
+    private final long maxLockMillis;
+    private final int localCacheSize;
+    private final ConcurrentHashMap<String, Long> knownLocks = new ConcurrentHashMap<>();
+
+    public LoginThrottle(RedisTemplate<String, String> redisTemplate,
+                         @Value("${application.security.login-throttle.window-seconds}") long windowSeconds,
+                         @Value("${application.security.login-throttle.max-failures-per-email}") int maxFailuresPerEmail,
+                         @Value("${application.security.login-throttle.max-failures-per-ip}") int maxFailuresPerIp,
+                         @Value("${application.security.login-throttle.base-lock-seconds}") long baseLockSeconds,
+                         @Value("${application.security.login-throttle.max-lock-seconds}") long maxLockSeconds,
+                         @Value("${application.security.login-throttle.local-cache-size}") int localCacheSize) {
+        this.redisTemplate = redisTemplate;
+        this.windowMillis = windowSeconds * 1000;
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.baseLockMillis = baseLockSeconds * 1000;
+        this.maxLockMillis = maxLockSeconds * 1000;
+        this.localCacheSize = localCacheSize;
+    }
+
+    /**
+     * Throws when the email or the client IP is currently locked.
+     */
+    public void check(String email, String clientIp) {
+        String emailScope = emailScope(email);
+        String ipScope = ipScope(clientIp);
+        long now = System.currentTimeMillis();
+        long lockedUntil = Math.max(knownLocks.getOrDefault(emailScope, 0L), knownLocks.getOrDefault(ipScope, 0L));
+        if (lockedUntil > now) {
+            throw throttled(lockedUntil - now);
+        }
+
+        List<?> remaining = redisTemplate.execute(CHECK, List.of(lockKey(emailScope), lockKey(ipScope)));
+        long longest = remember(emailScope, ipScope, now, remaining);
+        if (longest > 0) {
+            throw throttled(longest);
+        }
+    }
+
+    public void recordFailure(String email, String clientIp) {
+        String emailScope = emailScope(email);
+        String ipScope = ipScope(clientIp);
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        List<?> locked = redisTemplate.execute(FAIL,
+                List.of(counterKey(emailScope, window), counterKey(emailScope, window - 1), lockKey(emailScope),
+                        counterKey(ipScope, window), counterKey(ipScope, window - 1), lockKey(ipScope)),
+                String.valueOf(windowMillis), String.valueOf(now % windowMillis),
+                String.valueOf(maxFailuresPerEmail), String.valueOf(maxFailuresPerIp),
+                String.valueOf(baseLockMillis), String.valueOf(maxLockMillis));
+        remember(emailScope, ipScope, now, locked);
+    }
+
+    /**
+     * Forgets the email's failures after a successful login. IP failures are kept, a stuffing
+     * source that guesses one password right is still a stuffing source.
+     */
+    public void recordSuccess(String email) {
+        String emailScope = emailScope(email);
+        long window = System.currentTimeMillis() / windowMillis;
+        knownLocks.remove(emailScope);
+        redisTemplate.delete(List.of(counterKey(emailScope, window), counterKey(emailScope, window - 1)));
+    }
+
+    // Caches the per-scope lock times returned by the scripts and returns the longest
+    private long remember(String emailScope, String ipScope, long now, List<?> lockMillis) {
+        if (lockMillis == null || lockMillis.size() < 2) {
+            return 0;
+        }
+        long email = ((Number) lockMillis.get(0)).longValue();
+        long ip = ((Number) lockMillis.get(1)).longValue();
+        if (email > 0) {
+            remember(emailScope, now + email);
+        }
+        if (ip > 0) {
+            remember(ipScope, now + ip);
+        }
+        return Math.max(email, ip);
+    }
+
+    private void remember(String scope, long lockedUntil) {
+        if (knownLocks.size() >= localCacheSize) {
+            long now = System.currentTimeMillis();
+            knownLocks.values().removeIf(until -> until <= now);
+        }
+        if (knownLocks.size() < localCacheSize) {
+            knownLocks.put(scope, lockedUntil);
+        }
+    }
+
+    private RetryLaterException throttled(long remainingMillis) {
+        return new RetryLaterException(ApplicationError.LOGIN_THROTTLED, HttpStatus.TOO_MANY_REQUESTS,
+                Math.max(1, (remainingMillis + 999) / 1000));
+    }
+
+    private static String emailScope(String email) {
+        return "e:" + (email == null ? "" : email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String ipScope(String clientIp) {
+        return "i:" + clientIp;
+    }
+
+    private static String lockKey(String scope) {
+        return PREFIX + "lock:" + scope;
+    }
+
+    private static String counterKey(String scope, long window) {
+        return PREFIX + scope + ":" + window;
+    }
+}
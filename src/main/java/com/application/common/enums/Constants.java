@@ -1,7 +1,10 @@
 package com.application.common.enums;
 
 public class Constants {
-    public static final String ACCESS_TOKEN_PREFIX = "access_token:";
-    public static final String REFRESH_TOKEN_PREFIX = "refresh_token:";
+    public static final String ACCESS_TOKEN_PREFIX = "at:";
+    public static final String REFRESH_TOKEN_PREFIX = "rt:";
+    public static final String TOKEN_EPOCH_PREFIX = "token_epoch:";
+    public static final String SESSION_INDEX_PREFIX = "us:";
+    public static final String S3_METADATA_PREFIX = "s3m:";
 
 }
@@ -9,7 +9,12 @@ public enum ApplicationError {
     BRAND_NOT_REGISTERED(2005, "Brand not registered!"),
     TOKEN_NOT_VALID(2006, "Token not valid!"),
     USER_DISABLED(2007, "User is disabled!"),
-    EMAIL_SENDING_FAILED(2008, "Unable to send email");;
+    EMAIL_SENDING_FAILED(2008, "Unable to send email"),
+    LOGIN_BUSY(2009, "Too many logins in progress, retry shortly"),
+    LOGIN_THROTTLED(2010, "Too many failed login attempts, retry later"),
+    FILES_BUSY(2011, "Too many file operations in progress, retry shortly"),
+    FILE_TOO_LARGE(2012, "File exceeds the maximum upload size"),
+    UPLOADS_BUSY(2013, "Too many uploads in progress, retry shortly");
 
 
     private int errorCode;
@@ -0,0 +1,30 @@
+package com.application.common.exceptions;
+
+import com.application.common.response.Response;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApplicationExceptionHandler {
+
+    @ExceptionHandler(RetryLaterException.class)
+    public ResponseEntity<Response> handleRetryLater(RetryLaterException e) {
+        return ResponseEntity.status(e.getHttpStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(body(e));
+    }
+
+    @ExceptionHandler(CustomException.class)
+    public ResponseEntity<Response> handleCustomException(CustomException e) {
+        return ResponseEntity.status(e.getHttpStatus()).body(body(e));
+    }
+
+    private Response body(CustomException e) {
+        return Response.builder()
+                .code(e.getErrorCode())
+                .message(e.getMessage())
+                .build();
+    }
+}
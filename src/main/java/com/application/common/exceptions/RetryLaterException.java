@@ -0,0 +1,17 @@
+package com.application.common.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class RetryLaterException extends CustomException {
+
+    private static final long serialVersionUID = 4410829154337960481L;
+
+    private final long retryAfterSeconds;
+
+    public RetryLaterException(ApplicationError applicationError, HttpStatus httpStatus, long retryAfterSeconds) {
+        super(applicationError, httpStatus);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
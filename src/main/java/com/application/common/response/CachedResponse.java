@@ -0,0 +1,34 @@
+package com.application.common.response;
+
+/**
+ * A data-less {@link Response} shared between requests, together with its JSON form. Setters
+ * throw, since every caller sees the same instance.
+ */
+public final class CachedResponse extends Response {
+
+    private final transient byte[] json;
+
+    CachedResponse(Integer code, String message, byte[] json) {
+        super(null, message, code);
+        this.json = json;
+    }
+
+    byte[] json() {
+        return json;
+    }
+
+    @Override
+    public void setData(Object data) {
+        throw new UnsupportedOperationException("Cached responses are shared");
+    }
+
+    @Override
+    public void setMessage(String message) {
+        throw new UnsupportedOperationException("Cached responses are shared");
+    }
+
+    @Override
+    public void setCode(Integer code) {
+        throw new UnsupportedOperationException("Cached responses are shared");
+    }
+}
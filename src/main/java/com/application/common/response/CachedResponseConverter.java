@@ -0,0 +1,45 @@
+package com.application.common.response;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes the JSON of a {@link CachedResponse} as prepared at startup instead of serializing it
+ * again. Must be registered ahead of the Jackson converter.
+ */
+public class CachedResponseConverter extends AbstractHttpMessageConverter<CachedResponse> {
+
+    public CachedResponseConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CachedResponse.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected CachedResponse readInternal(Class<? extends CachedResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Cached responses are write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(CachedResponse response, MediaType contentType) {
+        return (long) response.json().length;
+    }
+
+    @Override
+    protected void writeInternal(CachedResponse response, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(response.json());
+    }
+}
@@ -0,0 +1,105 @@
+package com.application.common.response;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every {@link ResponseCode} in every locale that has a {@code messages_*.properties} bundle,
+ * resolved and serialized once at startup. Data-less responses are served as shared
+ * {@link CachedResponse} instances; responses with data reuse the resolved code and message.
+ * <p>
+ * A request locale without its own bundle is mapped to its language, then to
+ * {@code application.locale.default}, and the mapping is remembered for the next request.
+ */
+@Component
+public class ResponseCatalog {
+
+    // Caps the remembered mappings, since the locale comes straight from a request header
+    private static final int MAX_RESOLVED_LOCALES = 256;
+
+    private final Map<Locale, CachedResponse[]> byLocale;
+    private final CachedResponse[] defaults;
+    private final ConcurrentHashMap<Locale, CachedResponse[]> resolved = new ConcurrentHashMap<>();
+
+    public ResponseCatalog(MessageSource messageSource,
+                           ObjectMapper objectMapper,
+                           @Value("${application.locale.default}") Locale defaultLocale) {
+        Map<Locale, CachedResponse[]> table = new ConcurrentHashMap<>();
+        for (Locale locale : supportedLocales()) {
+            table.put(locale, build(messageSource, objectMapper, locale));
+        }
+        this.byLocale = table;
+        this.defaults = table.computeIfAbsent(defaultLocale, locale -> build(messageSource, objectMapper, locale));
+    }
+
+    public Response get(ResponseCode code, Locale locale) {
+        return responses(locale)[code.ordinal()];
+    }
+
+    public <T> Response withData(T data, ResponseCode code, Locale locale) {
+        CachedResponse cached = responses(locale)[code.ordinal()];
+        return new Response(data, cached.getMessage(), cached.getCode());
+    }
+
+    private CachedResponse[] responses(Locale locale) {
+        if (locale == null) {
+            return defaults;
+        }
+        CachedResponse[] responses = byLocale.get(locale);
+        if (responses != null) {
+            return responses;
+        }
+        responses = resolved.get(locale);
+        if (responses != null) {
+            return responses;
+        }
+        responses = byLocale.getOrDefault(Locale.of(locale.getLanguage()), defaults);
+        if (resolved.size() < MAX_RESOLVED_LOCALES) {
+            resolved.put(locale, responses);
+        }
+        return responses;
+    }
+
+    private static CachedResponse[] build(MessageSource messageSource, ObjectMapper objectMapper, Locale locale) {
+        ResponseCode[] codes = ResponseCode.values();
+        CachedResponse[] responses = new CachedResponse[codes.length];
+        for (ResponseCode code : codes) {
+            Integer number = Integer.valueOf(code.getCode());
+            String message = messageSource.getMessage(code.getCode(), null, locale);
+            try {
+                byte[] json = objectMapper.writeValueAsBytes(new Response(null, message, number));
+                responses[code.ordinal()] = new CachedResponse(number, message, json);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize response " + code, e);
+            }
+        }
+        return responses;
+    }
+
+    private static Set<Locale> supportedLocales() {
+        Set<Locale> locales = new LinkedHashSet<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:messages_*.properties")) {
+                String name = resource.getFilename();
+                String tag = name.substring("messages_".length(), name.length() - ".properties".length());
+                locales.add(Locale.forLanguageTag(tag.replace('_', '-')));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list message bundles", e);
+        }
+        return locales;
+    }
+}
@@ -15,7 +15,12 @@ public enum ResponseCode {
     USER_DISABLED("1009"),
     USER_ACTIVATED_SUCCESSFULLY("1010"),
     USER_SIGN_UP_FAILED("1011"),
-    URL_FETCHED_SUCCESSFULLY("1012");
+    URL_FETCHED_SUCCESSFULLY("1012"),
+    SESSIONS_FETCHED("1013"),
+    FILE_UPLOADED("1014"),
+    FILES_FETCHED("1015"),
+    FILE_DELETED("1016"),
+    FILE_NOT_FOUND("1017");
 
     private final String code;
 
@@ -1,7 +1,9 @@
 package com.application.config;
 
 import com.application.baseuser.BaseUserRepository;
+import com.application.config.password.CalibratedPasswordEncoder;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,7 +12,6 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
@@ -20,6 +21,18 @@ public class ApplicationConfig {
 
     private final BaseUserRepository repository;
 
+    @Value("${application.security.password.cost}")
+    private int passwordCost;
+
+    @Value("${application.security.password.target-verify-millis}")
+    private long passwordTargetMillis;
+
+    @Value("${application.security.password.min-cost}")
+    private int passwordMinCost;
+
+    @Value("${application.security.password.max-cost}")
+    private int passwordMaxCost;
+
     @Bean
     public UserDetailsService userDetailsService() {
         return username -> repository.findByEmail(username)
@@ -41,7 +54,10 @@ public class ApplicationConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        if (passwordCost > 0) {
+            return new CalibratedPasswordEncoder(passwordCost);
+        }
+        return CalibratedPasswordEncoder.calibrate(passwordTargetMillis, passwordMinCost, passwordMaxCost);
     }
 
 }
\ No newline at end of file
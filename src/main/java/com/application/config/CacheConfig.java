@@ -1,10 +1,17 @@
 package com.application.config;
 
+import com.application.aws.service.S3MetadataCache;
+import com.application.config.jwt.TokenEpochs;
+import com.application.config.jwt.TokenRevocationCache;
+import com.application.config.jwt.UserSecurityVersions;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -14,10 +21,36 @@ public class CacheConfig {
     @Bean
     public RedisTemplate<String, String> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, String> template = new RedisTemplate<>();
-        template.setConnectionFactory(connectionFactory);
+        template.setConnectionFactory(TracingRedisConnectionFactory.wrap(connectionFactory));
         template.setKeySerializer(new StringRedisSerializer());
         template.setValueSerializer(new StringRedisSerializer());
         return template;
     }
+
+    @Bean
+    public RedisTemplate<String, byte[]> tokenRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(TracingRedisConnectionFactory.wrap(connectionFactory));
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setHashValueSerializer(new StringRedisSerializer());
+        return template;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       TokenRevocationCache tokenRevocationCache,
+                                                                       UserSecurityVersions userSecurityVersions,
+                                                                       TokenEpochs tokenEpochs,
+                                                                       S3MetadataCache s3MetadataCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(tokenRevocationCache, new ChannelTopic(TokenRevocationCache.CHANNEL));
+        container.addMessageListener(userSecurityVersions, new ChannelTopic(UserSecurityVersions.CHANNEL));
+        container.addMessageListener(tokenEpochs, new ChannelTopic(TokenEpochs.CHANNEL));
+        container.addMessageListener(s3MetadataCache, new ChannelTopic(S3MetadataCache.CHANNEL));
+        return container;
+    }
 }
 
@@ -0,0 +1,44 @@
+package com.application.config;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Loads the Lua scripts under {@code resources/scripts}. A script can be assembled from several
+ * files, so functions shared by scripts are kept in one file instead of being copied into each.
+ */
+public final class RedisScripts {
+
+    private RedisScripts() {
+    }
+
+    public static RedisScript<Long> number(String... paths) {
+        return RedisScript.of(source(paths), Long.class);
+    }
+
+    public static RedisScript<List<Object>> list(String... paths) {
+        return RedisScript.of(source(paths), listType());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<List<Object>> listType() {
+        return (Class<List<Object>>) (Class<?>) List.class;
+    }
+
+    private static String source(String... paths) {
+        StringBuilder source = new StringBuilder();
+        for (String path : paths) {
+            try {
+                source.append(new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8)).append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load Redis script " + path, e);
+            }
+        }
+        return source.toString();
+    }
+}
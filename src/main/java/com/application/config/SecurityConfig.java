@@ -2,6 +2,7 @@ package com.application.config;
 
 import com.application.common.enums.RoleType;
 import com.application.config.jwt.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,8 +37,14 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(
                         auth -> auth
+                                // Async results are written in a second dispatch that the JWT filter skips;
+                                // the request itself was already authorized
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                                // Only a token that passes every JWT filter check may end all sessions
+                                .requestMatchers("/auth/logout-all").authenticated()
                                 .requestMatchers("/auth/**", "/swagger-ui/**", "swagger-ui/**", "swagger-ui**", "/v3/api-docs/**").permitAll()
                                 .requestMatchers("/user/**").hasAnyAuthority(RoleType.USER.name())
+                                .requestMatchers("/admin/**").hasAnyAuthority(RoleType.ADMIN.name())
                                 .anyRequest().authenticated()
                 )
                 .sessionManagement(session ->
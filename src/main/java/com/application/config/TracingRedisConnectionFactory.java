@@ -0,0 +1,100 @@
+package com.application.config;
+
+import com.application.config.aop.TraceContext;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+/**
+ * Wraps the connection factory of the application's Redis templates so that, while a request is
+ * being recorded, every template operation becomes a {@code redis} span. A template takes a
+ * connection per operation and closes it afterwards, so the span runs from the first command to
+ * {@code close()} and is named after that first command. Commands reached through accessors such
+ * as {@code stringCommands()} are named after the command, not the accessor.
+ */
+final class TracingRedisConnectionFactory {
+
+    private TracingRedisConnectionFactory() {
+    }
+
+    static RedisConnectionFactory wrap(RedisConnectionFactory connectionFactory) {
+        return (RedisConnectionFactory) Proxy.newProxyInstance(RedisConnectionFactory.class.getClassLoader(),
+                new Class<?>[]{RedisConnectionFactory.class}, (proxy, method, args) -> {
+                    Object result = invoke(connectionFactory, method, args);
+                    if (result instanceof RedisConnection connection && "getConnection".equals(method.getName())
+                            && TraceContext.isRecording()) {
+                        return Proxy.newProxyInstance(RedisConnection.class.getClassLoader(),
+                                new Class<?>[]{RedisConnection.class}, new SpanHandler(connection));
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class SpanHandler implements InvocationHandler {
+
+        // Connection state and accessors; everything else on the connection is a Redis command,
+        // including get, getSet, getDel and the like
+        private static final Set<String> NOT_COMMANDS = Set.of(
+                "isClosed", "isPipelined", "isQueueing", "isSubscribed", "getNativeConnection",
+                "getSentinelConnection", "getSubscription", "equals", "hashCode", "toString");
+
+        private final RedisConnection connection;
+        private long start;
+        private String command;
+        private boolean failed;
+
+        SpanHandler(RedisConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("close".equals(name)) {
+                try {
+                    return TracingRedisConnectionFactory.invoke(connection, method, args);
+                } finally {
+                    if (command != null) {
+                        TraceContext.recordSpan("redis", command, start, failed);
+                    }
+                }
+            }
+            if (NOT_COMMANDS.contains(name)) {
+                return TracingRedisConnectionFactory.invoke(connection, method, args);
+            }
+            if (name.endsWith("Commands") && method.getParameterCount() == 0) {
+                Object commands = TracingRedisConnectionFactory.invoke(connection, method, args);
+                return Proxy.newProxyInstance(RedisConnection.class.getClassLoader(),
+                        new Class<?>[]{method.getReturnType()},
+                        (commandsProxy, commandMethod, commandArgs) -> call(commands, commandMethod, commandArgs));
+            }
+            return call(connection, method, args);
+        }
+
+        private Object call(Object target, Method method, Object[] args) throws Throwable {
+            if (command == null) {
+                command = method.getName();
+                start = System.nanoTime();
+            }
+            try {
+                return TracingRedisConnectionFactory.invoke(target, method, args);
+            } catch (Throwable e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+}
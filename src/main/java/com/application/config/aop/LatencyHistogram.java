@@ -0,0 +1,116 @@
+package com.application.config.aop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in nanoseconds with HDR-style log-linear buckets: values below
+ * 32 ns get a bucket each, above that every power of two is split into 16 buckets, which keeps
+ * reported percentiles within about 6% of the recorded value. Values above ~4.9 hours are
+ * clamped. Recording is one array increment plus counters, safe from any number of threads.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int FIRST_EXPONENT = SUB_BUCKET_BITS + 1;
+    private static final long MAX_VALUE = (1L << 44) - 1;
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    private final AtomicLong errors = new AtomicLong();
+
+    void record(long nanos, boolean failed) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+        if (failed) {
+            errors.incrementAndGet();
+        }
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    long sum() {
+        return sum.sum();
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Upper bounds of the buckets holding the given percentiles (0-100), read from one pass over
+     * the buckets. Concurrent recording may make the result slightly stale, never inconsistent.
+     */
+    long[] percentiles(double... percentiles) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+
+        long[] values = new long[percentiles.length];
+        if (total == 0) {
+            return values;
+        }
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(percentiles[p] / 100.0 * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    values[p] = upperBound(i);
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+        errors.set(0);
+    }
+
+    static int index(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int exponent = FIRST_EXPONENT + offset / SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lower = (long) (SUB_BUCKETS + offset % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
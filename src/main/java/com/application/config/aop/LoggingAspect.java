@@ -7,19 +7,48 @@ import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+/**
+ * Logs entry to and exit from application beans for traced requests. Everything that decides
+ * whether a line is written (trace id, log level, sampling) is checked before the arguments are
+ * touched; arguments and results are only rendered and masked when the logger formats the line.
+ * <p>
+ * {@code sample-rates} maps package prefixes to the fraction of traces logged for classes in
+ * them, the longest matching prefix winning. The decision is taken from the trace id, so a
+ * sampled trace is logged in full.
+ */
 @Aspect
 @Component
 public class LoggingAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
 
+    private static final Pattern SENSITIVE_PAIR = Pattern.compile("(token|password|secret|ssn)=([^,)}\\s]+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern JWT = Pattern.compile("\\beyJ[\\w-]+\\.[\\w-]+\\.[\\w-]+\\b");
+
+    private final List<Map.Entry<String, Double>> sampleRates;
+    private final double defaultSampleRate;
+    private final Map<Class<?>, Double> rateByType = new ConcurrentHashMap<>();
+
+    public LoggingAspect(@Value("#{${application.logging.aspect.sample-rates}}") Map<String, Double> sampleRates,
+                         @Value("${application.logging.aspect.default-sample-rate}") double defaultSampleRate) {
+        this.sampleRates = sampleRates.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, Double> e) -> e.getKey().length()).reversed())
+                .toList();
+        this.defaultSampleRate = defaultSampleRate;
+    }
+
     // Pointcut that matches all repositories, services, and Web REST endpoints
     @Pointcut("within(@org.springframework.stereotype.Repository *)" +
             " || within(@org.springframework.stereotype.Service *)" +
@@ -27,78 +56,98 @@ public class LoggingAspect {
     public void springBeanPointcut() {}
 
     // Pointcut that matches all Spring beans in application's main packages
-    @Pointcut("within(com.application.*)" +
-            " || within(com.application.*)" +
-            " || within(com.application..*)")
+    @Pointcut("within(com.application..*)")
     public void applicationPackagePointcut() {}
 
     @Before("applicationPackagePointcut() && springBeanPointcut()")
     public void logWhenEnteringMethod(JoinPoint joinPoint) {
-        String traceId = TracingFilter.getTracingNumber();
-        String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
-        String methodName = joinPoint.getSignature().getName();
-        Object[] args = joinPoint.getArgs();
-        String params = filterSensitiveData(args);
-        if(traceId != null)
-            logger.info("Tracing Number: {} - Entering {}: {}() with params {}", traceId, className, methodName, params);
+        entering(joinPoint.getSignature().getDeclaringType(), joinPoint.getSignature().getName(), joinPoint.getArgs());
     }
 
     @AfterReturning(pointcut = "applicationPackagePointcut() && springBeanPointcut()", returning = "result")
     public void logAfterReturningMethod(JoinPoint joinPoint, Object result) {
-        String traceId = TracingFilter.getTracingNumber();
-        String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
-        String methodName = joinPoint.getSignature().getName();
-        String returnValue = filterSensitiveData(result);
-        if(traceId != null)
-            logger.info("Tracing Number: {} - Exiting {}: {}() with result: {}", traceId, className, methodName, returnValue);
+        exiting(joinPoint.getSignature().getDeclaringType(), joinPoint.getSignature().getName(), result);
+    }
+
+    void entering(Class<?> type, String methodName, Object[] args) {
+        String traceId = TraceContext.currentTraceId();
+        if (traceId != null && logger.isInfoEnabled() && sampled(type, traceId)) {
+            logger.info("Tracing Number: {} - Entering {}: {}() with params {}",
+                    traceId, type.getSimpleName(), methodName, new Masked(args));
+        }
+    }
+
+    void exiting(Class<?> type, String methodName, Object result) {
+        String traceId = TraceContext.currentTraceId();
+        if (traceId != null && logger.isInfoEnabled() && sampled(type, traceId)) {
+            logger.info("Tracing Number: {} - Exiting {}: {}() with result: {}",
+                    traceId, type.getSimpleName(), methodName, new Masked(result));
+        }
     }
 
-    private String filterSensitiveData(Object data) {
+    private boolean sampled(Class<?> type, String traceId) {
+        double rate = rateByType.computeIfAbsent(type, this::rateFor);
+        if (rate >= 1.0) {
+            return true;
+        }
+        return (traceId.hashCode() & Integer.MAX_VALUE) < rate * Integer.MAX_VALUE;
+    }
+
+    private double rateFor(Class<?> type) {
+        String name = type.getName();
+        for (Map.Entry<String, Double> rate : sampleRates) {
+            if (name.startsWith(rate.getKey())) {
+                return rate.getValue();
+            }
+        }
+        return defaultSampleRate;
+    }
+
+    static String filterSensitiveData(Object data) {
         if (data == null) {
             return "null";
         }
-        if (data instanceof Object[]) {
-            return Arrays.toString(Arrays.stream((Object[]) data)
-                    .map(this::filterSensitiveData)
-                    .toArray());
+        if (data instanceof Object[] array) {
+            return Arrays.toString(Arrays.stream(array).map(LoggingAspect::filterSensitiveData).toArray());
         }
-        if (data instanceof List) {
-            return Arrays.toString(((List<?>) data).stream()
-                    .map(this::filterSensitiveData)
-                    .toArray());
+        if (data instanceof List<?> list) {
+            return Arrays.toString(list.stream().map(LoggingAspect::filterSensitiveData).toArray());
         }
         return maskSensitiveData(data.toString());
     }
 
-    private String maskSensitiveData(String data) {
-        for (String keyword : getSensitiveKeywords()) {
-            Pattern pattern = Pattern.compile("(" + keyword + "=)([^,)}\\s]+)");
-            Matcher matcher = pattern.matcher(data);
-            StringBuffer sb = new StringBuffer();
-            while (matcher.find()) {
-                matcher.appendReplacement(sb, matcher.group(1) + "*****");
-            }
-            matcher.appendTail(sb);
-            data = sb.toString();
+    private static String maskSensitiveData(String data) {
+        // Most values have neither a key=value pair nor a JWT, skip the regex scans for them
+        if (data.indexOf('=') >= 0) {
+            data = replace(SENSITIVE_PAIR, data, "$1=*****");
+        }
+        if (data.contains("eyJ")) {
+            data = replace(JWT, data, "*****");
         }
-        data = maskDirectTokens(data);
-
         return data;
     }
 
-    private String maskDirectTokens(String data) {
-        Pattern tokenPattern = Pattern.compile("\\beyJ[\\w-]+\\.[\\w-]+\\.[\\w-]+\\b");
-        Matcher matcher = tokenPattern.matcher(data);
-        StringBuffer sb = new StringBuffer();
-        while (matcher.find()) {
-            matcher.appendReplacement(sb, "*****");
+    private static String replace(Pattern pattern, String data, String replacement) {
+        Matcher matcher = pattern.matcher(data);
+        if (!matcher.find()) {
+            return data;
         }
+        StringBuilder sb = new StringBuilder(data.length());
+        do {
+            matcher.appendReplacement(sb, replacement);
+        } while (matcher.find());
         matcher.appendTail(sb);
         return sb.toString();
     }
 
-    private List<String> getSensitiveKeywords() {
-        return List.of("token", "password", "secret", "ssn");
-    }
+    /**
+     * Renders and masks its value only when the logger formats the line.
+     */
+    private record Masked(Object value) {
 
+        @Override
+        public String toString() {
+            return filterSensitiveData(value);
+        }
+    }
 }
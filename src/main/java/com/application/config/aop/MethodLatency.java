@@ -0,0 +1,24 @@
+package com.application.config.aop;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MethodLatency {
+
+    private String type;
+    private String method;
+    private long count;
+    private long errors;
+    private double meanMicros;
+    private double p50Micros;
+    private double p90Micros;
+    private double p99Micros;
+    private double p999Micros;
+    private double maxMicros;
+}
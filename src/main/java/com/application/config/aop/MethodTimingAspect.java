@@ -0,0 +1,109 @@
+package com.application.config.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every call matched by {@link LoggingAspect}'s pointcuts, plus the Spring Data
+ * repositories, into a {@link LatencyHistogram} per type and method. The type is resolved once
+ * per proxy class, so repository calls are reported under the repository interface rather than
+ * {@code SimpleJpaRepository}.
+ */
+@Aspect
+@Component
+public class MethodTimingAspect {
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<Method, LatencyHistogram>> byType = new ConcurrentHashMap<>();
+    private final ClassValue<ConcurrentHashMap<Method, LatencyHistogram>> byProxyClass = new ClassValue<>() {
+        @Override
+        protected ConcurrentHashMap<Method, LatencyHistogram> computeValue(Class<?> type) {
+            return byType.computeIfAbsent(typeName(type), name -> new ConcurrentHashMap<>());
+        }
+    };
+
+    public MethodTimingAspect(@Value("${application.timing.enabled}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Around("(com.application.config.aop.LoggingAspect.applicationPackagePointcut()"
+            + " && com.application.config.aop.LoggingAspect.springBeanPointcut())"
+            + " || execution(* com.application..*Repository+.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            byProxyClass.get(joinPoint.getThis().getClass())
+                    .computeIfAbsent(method, m -> new LatencyHistogram())
+                    .record(elapsed, failed);
+        }
+    }
+
+    /**
+     * Snapshot of every timed method, slowest p99 first.
+     */
+    public List<MethodLatency> snapshot() {
+        List<MethodLatency> methods = new ArrayList<>();
+        byType.forEach((type, histograms) -> histograms.forEach((method, histogram) -> {
+            long count = histogram.count();
+            if (count == 0) {
+                return;
+            }
+            long[] percentiles = histogram.percentiles(50, 90, 99, 99.9);
+            methods.add(MethodLatency.builder()
+                    .type(type)
+                    .method(method.getName())
+                    .count(count)
+                    .errors(histogram.errors())
+                    .meanMicros(micros(histogram.sum() / (double) count))
+                    .p50Micros(micros(percentiles[0]))
+                    .p90Micros(micros(percentiles[1]))
+                    .p99Micros(micros(percentiles[2]))
+                    .p999Micros(micros(percentiles[3]))
+                    .maxMicros(micros(histogram.max()))
+                    .build());
+        }));
+        methods.sort(Comparator.comparingDouble(MethodLatency::getP99Micros).reversed());
+        return methods;
+    }
+
+    public void reset() {
+        byType.values().forEach(histograms -> histograms.values().forEach(LatencyHistogram::reset));
+    }
+
+    private static double micros(double nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+
+    static String typeName(Class<?> type) {
+        if (Proxy.isProxyClass(type)) {
+            for (Class<?> candidate : type.getInterfaces()) {
+                if (candidate.getName().startsWith("com.application.")) {
+                    return candidate.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(type).getSimpleName();
+    }
+}
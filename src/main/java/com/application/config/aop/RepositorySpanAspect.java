@@ -0,0 +1,38 @@
+package com.application.config.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records a {@code db} span for every repository call made while a request is being recorded.
+ */
+@Aspect
+@Component
+public class RepositorySpanAspect {
+
+    private static final ClassValue<String> TYPE_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return MethodTimingAspect.typeName(type);
+        }
+    };
+
+    @Around("execution(* com.application..*Repository+.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!TraceContext.isRecording()) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            TraceContext.recordSpan("db", TYPE_NAMES.get(joinPoint.getThis().getClass()) + "."
+                    + joinPoint.getSignature().getName(), start, failed);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.application.config.aop;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps recently finished {@link TraceRecording}s in fixed-size rings. Tail sampling decides
+ * once a request is over: every request slower than {@code slow-threshold-millis} is kept, the
+ * rest with probability {@code sample-rate}. Slow and sampled traces have a ring each, so a burst
+ * of fast requests cannot push the outliers out. Writers claim a slot with one atomic increment
+ * and overwrite whatever was there.
+ */
+@Component
+public class SpanRecorder {
+
+    private static final int WATERFALL_WIDTH = 50;
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final Ring slow;
+    private final Ring sampled;
+
+    public SpanRecorder(@Value("${application.tracing.spans.enabled}") boolean enabled,
+                        @Value("${application.tracing.spans.slow-threshold-millis}") long slowThresholdMillis,
+                        @Value("${application.tracing.spans.sample-rate}") double sampleRate,
+                        @Value("${application.tracing.spans.buffer-size}") int bufferSize) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.sampleRate = sampleRate;
+        this.slow = new Ring(bufferSize);
+        this.sampled = new Ring(bufferSize);
+    }
+
+    /**
+     * A recording for a request that is starting, or {@code null} when recording is disabled.
+     */
+    TraceRecording begin(String traceId, String name) {
+        return enabled ? new TraceRecording(traceId, name) : null;
+    }
+
+    void finish(TraceRecording recording) {
+        if (recording == null) {
+            return;
+        }
+        recording.finish();
+        if (recording.durationNanos() >= slowThresholdNanos) {
+            slow.add(recording);
+        } else if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            sampled.add(recording);
+        }
+    }
+
+    /**
+     * Kept traces lasting at least {@code minMillis}, slowest first.
+     */
+    public List<TraceView> slowest(int limit, long minMillis) {
+        long minNanos = TimeUnit.MILLISECONDS.toNanos(minMillis);
+        List<TraceRecording> recordings = new ArrayList<>();
+        slow.collect(minNanos, recordings);
+        sampled.collect(minNanos, recordings);
+        return recordings.stream()
+                .sorted(Comparator.comparingLong(TraceRecording::durationNanos).reversed())
+                .limit(limit)
+                .map(SpanRecorder::view)
+                .toList();
+    }
+
+    private static TraceView view(TraceRecording recording) {
+        long total = Math.max(1, recording.durationNanos());
+        List<TraceView.SpanView> spans = recording.spans().stream()
+                .sorted(Comparator.comparingLong(TraceRecording.Span::offsetNanos))
+                .map(span -> TraceView.SpanView.builder()
+                        .kind(span.kind())
+                        .name(span.name())
+                        .offsetMillis(millis(span.offsetNanos()))
+                        .durationMillis(millis(span.durationNanos()))
+                        .thread(span.thread())
+                        .failed(span.failed())
+                        .waterfall(waterfall(span.offsetNanos(), span.durationNanos(), total))
+                        .build())
+                .toList();
+        return TraceView.builder()
+                .traceId(recording.traceId())
+                .name(recording.name())
+                .startedAt(recording.startedAt())
+                .durationMillis(millis(recording.durationNanos()))
+                .droppedSpans(recording.droppedSpans())
+                .spans(spans)
+                .build();
+    }
+
+    private static String waterfall(long offsetNanos, long durationNanos, long totalNanos) {
+        int start = (int) Math.min(WATERFALL_WIDTH - 1, offsetNanos * WATERFALL_WIDTH / totalNanos);
+        int length = (int) Math.max(1, Math.min(WATERFALL_WIDTH - start, durationNanos * WATERFALL_WIDTH / totalNanos));
+        return ".".repeat(start) + "#".repeat(length) + ".".repeat(WATERFALL_WIDTH - start - length);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static final class Ring {
+
+        private final AtomicReferenceArray<TraceRecording> slots;
+        private final AtomicLong next = new AtomicLong();
+
+        Ring(int size) {
+            this.slots = new AtomicReferenceArray<>(size);
+        }
+
+        void add(TraceRecording recording) {
+            slots.set((int) (next.getAndIncrement() % slots.length()), recording);
+        }
+
+        void collect(long minNanos, List<TraceRecording> into) {
+            for (int i = 0; i < slots.length(); i++) {
+                TraceRecording recording = slots.get(i);
+                if (recording != null && recording.durationNanos() >= minNanos) {
+                    into.add(recording);
+                }
+            }
+        }
+    }
+}
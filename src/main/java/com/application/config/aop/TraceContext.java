@@ -0,0 +1,204 @@
+package com.application.config.aop;
+
+import org.slf4j.MDC;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * W3C trace context of the work running on the current thread. Ids come from
+ * {@link ThreadLocalRandom}, so generating them involves no shared state. The active context is
+ * mirrored into the MDC as {@code traceId} and {@code spanId}.
+ * <p>
+ * Work handed to another thread keeps the context when it is wrapped with {@link #wrap}; Spring
+ * task executors do this through the decorator in {@link TracingConfig}. Wrapping the runnable an
+ * executor receives, rather than the task itself, also covers {@code CompletableFuture} stages
+ * that complete on that thread.
+ */
+public final class TraceContext {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+    public static final String MDC_TRACE_ID = "traceId";
+    public static final String MDC_SPAN_ID = "spanId";
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String traceId;
+    private final String spanId;
+    private final boolean sampled;
+    private final TraceRecording recording;
+
+    private TraceContext(String traceId, String spanId, boolean sampled, TraceRecording recording) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.sampled = sampled;
+        this.recording = recording;
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    public String spanId() {
+        return spanId;
+    }
+
+    public boolean sampled() {
+        return sampled;
+    }
+
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    public static String currentTraceId() {
+        TraceContext context = CURRENT.get();
+        return context == null ? null : context.traceId;
+    }
+
+    public static TraceContext newTrace() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new TraceContext(hex(nonZero(random), nonZero(random)), hex(nonZero(random)), true, null);
+    }
+
+    /**
+     * A new span continuing the trace in a {@code traceparent} header, or a new trace when the
+     * header is missing or malformed.
+     */
+    public static TraceContext fromTraceparent(String header) {
+        if (!isValid(header)) {
+            return newTrace();
+        }
+        String traceId = header.substring(3, 35);
+        boolean sampled = (Character.digit(header.charAt(54), 16) & 1) == 1;
+        return new TraceContext(traceId, hex(nonZero(ThreadLocalRandom.current())), sampled, null);
+    }
+
+    /**
+     * This context with client-call spans going to {@code recording}.
+     */
+    TraceContext recordedBy(TraceRecording recording) {
+        return new TraceContext(traceId, spanId, sampled, recording);
+    }
+
+    /**
+     * Whether spans recorded on this thread are kept; lets callers skip building span names.
+     */
+    public static boolean isRecording() {
+        TraceContext context = CURRENT.get();
+        return context != null && context.recording != null;
+    }
+
+    /**
+     * Adds a client-call span that started at {@code startNanos} ({@link System#nanoTime()}) and
+     * ends now to the current request's recording, if there is one.
+     */
+    public static void recordSpan(String kind, String name, long startNanos, boolean failed) {
+        TraceContext context = CURRENT.get();
+        if (context != null && context.recording != null) {
+            context.recording.add(kind, name, startNanos, failed);
+        }
+    }
+
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    /**
+     * Makes this the current context until the returned scope is closed, which restores the
+     * previous one.
+     */
+    public Scope attach() {
+        TraceContext previous = CURRENT.get();
+        set(this);
+        return () -> set(previous);
+    }
+
+    public static Runnable wrap(Runnable task) {
+        TraceContext context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            Scope scope = context.attach();
+            try {
+                task.run();
+            } finally {
+                scope.close();
+            }
+        };
+    }
+
+    private static void set(TraceContext context) {
+        if (context == null) {
+            CURRENT.remove();
+            MDC.remove(MDC_TRACE_ID);
+            MDC.remove(MDC_SPAN_ID);
+        } else {
+            CURRENT.set(context);
+            MDC.put(MDC_TRACE_ID, context.traceId);
+            MDC.put(MDC_SPAN_ID, context.spanId);
+        }
+    }
+
+    // version "00"-"fe", 32 hex trace id, 16 hex parent id, 2 hex flags; all-zero ids are invalid
+    private static boolean isValid(String header) {
+        if (header == null || header.length() < 55 || header.startsWith("ff")
+                || header.charAt(2) != '-' || header.charAt(35) != '-' || header.charAt(52) != '-'
+                || (header.length() > 55 && header.charAt(55) != '-')) {
+            return false;
+        }
+        return isHex(header, 0, 2) && isNonZeroHex(header, 3, 35) && isNonZeroHex(header, 36, 52)
+                && isHex(header, 53, 55);
+    }
+
+    private static boolean isNonZeroHex(String s, int from, int to) {
+        boolean nonZero = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (!isHexChar(c)) {
+                return false;
+            }
+            nonZero |= c != '0';
+        }
+        return nonZero;
+    }
+
+    private static boolean isHex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isHexChar(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHexChar(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+    }
+
+    private static long nonZero(ThreadLocalRandom random) {
+        long value;
+        do {
+            value = random.nextLong();
+        } while (value == 0);
+        return value;
+    }
+
+    private static String hex(long... values) {
+        char[] chars = new char[values.length * 16];
+        int pos = 0;
+        for (long value : values) {
+            for (int shift = 60; shift >= 0; shift -= 4) {
+                chars[pos++] = HEX[(int) (value >>> shift) & 0xf];
+            }
+        }
+        return new String(chars);
+    }
+
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
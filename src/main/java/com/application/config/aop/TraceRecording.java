@@ -0,0 +1,74 @@
+package com.application.config.aop;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client-call spans of one request. Spans may be added from any thread the request's
+ * {@link TraceContext} has been carried to; at most {@link #MAX_SPANS} are kept.
+ */
+public final class TraceRecording {
+
+    static final int MAX_SPANS = 256;
+
+    private final String traceId;
+    private final String name;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final List<Span> spans = new ArrayList<>();
+    private int droppedSpans;
+    private volatile long durationNanos = -1;
+
+    TraceRecording(String traceId, String name) {
+        this.traceId = traceId;
+        this.name = name;
+    }
+
+    record Span(String kind, String name, long offsetNanos, long durationNanos, String thread, boolean failed) {
+    }
+
+    void add(String kind, String name, long spanStartNanos, boolean failed) {
+        Span span = new Span(kind, name, spanStartNanos - startNanos, System.nanoTime() - spanStartNanos,
+                Thread.currentThread().getName(), failed);
+        synchronized (spans) {
+            if (spans.size() < MAX_SPANS) {
+                spans.add(span);
+            } else {
+                droppedSpans++;
+            }
+        }
+    }
+
+    void finish() {
+        durationNanos = System.nanoTime() - startNanos;
+    }
+
+    List<Span> spans() {
+        synchronized (spans) {
+            return List.copyOf(spans);
+        }
+    }
+
+    int droppedSpans() {
+        synchronized (spans) {
+            return droppedSpans;
+        }
+    }
+
+    String traceId() {
+        return traceId;
+    }
+
+    String name() {
+        return name;
+    }
+
+    Instant startedAt() {
+        return startedAt;
+    }
+
+    long durationNanos() {
+        return durationNanos;
+    }
+}
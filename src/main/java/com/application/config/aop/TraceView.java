@@ -0,0 +1,39 @@
+package com.application.config.aop;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraceView {
+
+    private String traceId;
+    private String name;
+    private Instant startedAt;
+    private double durationMillis;
+    private int droppedSpans;
+    private List<SpanView> spans;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SpanView {
+
+        private String kind;
+        private String name;
+        private double offsetMillis;
+        private double durationMillis;
+        private String thread;
+        private boolean failed;
+        // Position and length of the span on the request's timeline
+        private String waterfall;
+    }
+}
@@ -0,0 +1,18 @@
+package com.application.config.aop;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Picked up by the auto-configured task executor, so work it runs keeps the trace context
+     * of the thread that submitted it.
+     */
+    @Bean
+    public TaskDecorator traceContextTaskDecorator() {
+        return TraceContext::wrap;
+    }
+}
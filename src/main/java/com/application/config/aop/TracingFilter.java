@@ -1,6 +1,8 @@
 package com.application.config.aop;
 
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -8,16 +10,33 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.UUID;
 
+/**
+ * Starts a {@link TraceContext} for every request, continuing the caller's trace when a valid
+ * {@code traceparent} header is present, and returns the request's own {@code traceparent}.
+ * Client-call spans recorded while the request runs are handed to {@link SpanRecorder} once the
+ * response is complete.
+ * <p>
+ * Ordered ahead of the Spring Security filter chain, so JWT verification and its Redis lookups
+ * are traced and rejected requests also get a {@code traceparent}.
+ */
 @Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
 @WebFilter("/*")
 public class TracingFilter implements Filter {
 
-    public static final ThreadLocal<String> tracingNumber = ThreadLocal.withInitial(() -> null);
+    private final SpanRecorder spanRecorder;
+
+    public TracingFilter(SpanRecorder spanRecorder) {
+        this.spanRecorder = spanRecorder;
+    }
 
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
@@ -27,12 +46,24 @@ public class TracingFilter implements Filter {
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        TraceContext context = TraceContext.fromTraceparent(httpRequest.getHeader(TraceContext.TRACEPARENT_HEADER));
+        TraceRecording recording = spanRecorder.begin(context.traceId(),
+                httpRequest.getMethod() + " " + httpRequest.getRequestURI());
+        ((HttpServletResponse) response).setHeader(TraceContext.TRACEPARENT_HEADER, context.traceparent());
+        TraceContext.Scope scope = context.recordedBy(recording).attach();
         try {
-            String traceId = UUID.randomUUID().toString();
-            tracingNumber.set(traceId);
             chain.doFilter(request, response);
         } finally {
-            tracingNumber.remove();
+            scope.close();
+            if (recording != null) {
+                if (httpRequest.isAsyncStarted()) {
+                    // Async handlers such as login finish after this filter has returned
+                    httpRequest.getAsyncContext().addListener(new FinishRecording(recording));
+                } else {
+                    spanRecorder.finish(recording);
+                }
+            }
         }
     }
 
@@ -41,6 +72,32 @@ public class TracingFilter implements Filter {
     }
 
     public static String getTracingNumber() {
-        return tracingNumber.get();
+        return TraceContext.currentTraceId();
+    }
+
+    private final class FinishRecording implements AsyncListener {
+
+        private final TraceRecording recording;
+
+        FinishRecording(TraceRecording recording) {
+            this.recording = recording;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            spanRecorder.finish(recording);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
     }
 }
@@ -0,0 +1,25 @@
+package com.application.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.application.EmailSend")
+@Label("Email Send")
+@Category({"Application", "Mail"})
+@Description("A batch of messages sent over a pooled SMTP connection")
+@StackTrace(false)
+public class EmailSendEvent extends Event {
+
+    @Label("Recipient Domain")
+    public String domain;
+
+    @Label("Messages")
+    public int messages;
+
+    @Label("Failed")
+    public int failed;
+}
@@ -0,0 +1,26 @@
+package com.application.config.jfr;
+
+/**
+ * Short stable hashes for identifiers written into JFR events, so recordings can correlate
+ * events of one user or object without carrying the identifier itself.
+ */
+public final class EventHashes {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private EventHashes() {
+    }
+
+    public static String of(String value) {
+        if (value == null) {
+            return null;
+        }
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return Long.toHexString(hash);
+    }
+}
@@ -0,0 +1,22 @@
+package com.application.config.jfr;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightRecordingStatus {
+
+    private long id;
+    private String state;
+    private Instant startedAt;
+    private long maxAgeSeconds;
+    private long maxSizeBytes;
+    private long sizeBytes;
+}
@@ -0,0 +1,120 @@
+package com.application.config.jfr;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * One on-demand flight recording at a time, bounded by age and size so it can be left running
+ * on a production node. Uses the JDK's low-overhead {@code default} settings plus the
+ * application events. Requested limits above the configured maximums, or not positive (which JFR
+ * would read as unlimited), are clamped to the maximums.
+ */
+@Slf4j
+@Component
+public class FlightRecordings {
+
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS = List.of(
+            JwtVerificationEvent.class,
+            PasswordCheckEvent.class,
+            TokenStoreEvent.class,
+            S3OperationEvent.class,
+            EmailSendEvent.class);
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    private final Duration maxAllowedAge;
+    private final long maxAllowedSizeBytes;
+    private Recording recording;
+
+    public FlightRecordings(@Value("${application.jfr.max-age-seconds}") long maxAgeSeconds,
+                            @Value("${application.jfr.max-size-mb}") long maxSizeMb) {
+        this.maxAllowedAge = Duration.ofSeconds(maxAgeSeconds);
+        this.maxAllowedSizeBytes = Math.multiplyExact(maxSizeMb, BYTES_PER_MB);
+    }
+
+    public synchronized FlightRecordingStatus start(long maxAgeSeconds, long maxSizeMb) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return status();
+        }
+        close();
+        Recording started;
+        try {
+            started = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("JFR default settings not available", e);
+        }
+        started.setName("application-on-demand");
+        started.setToDisk(true);
+        started.setMaxAge(maxAgeSeconds <= 0 ? maxAllowedAge : min(Duration.ofSeconds(maxAgeSeconds), maxAllowedAge));
+        started.setMaxSize(maxSizeMb <= 0 || maxSizeMb >= maxAllowedSizeBytes / BYTES_PER_MB
+                ? maxAllowedSizeBytes : maxSizeMb * BYTES_PER_MB);
+        EVENTS.forEach(event -> started.enable(event).withoutThreshold());
+        started.start();
+        recording = started;
+        log.info("Started flight recording {}", started.getId());
+        return status();
+    }
+
+    public synchronized FlightRecordingStatus stop() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            log.info("Stopped flight recording {}", recording.getId());
+        }
+        return status();
+    }
+
+    /**
+     * Writes what the recording currently holds to a temporary file, which the caller deletes.
+     * Empty when nothing has been recorded.
+     */
+    public synchronized Path dump() {
+        if (recording == null || recording.getState() == RecordingState.NEW) {
+            return null;
+        }
+        try {
+            Path file = Files.createTempFile("application-", ".jfr");
+            recording.dump(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not dump flight recording", e);
+        }
+    }
+
+    public synchronized FlightRecordingStatus status() {
+        if (recording == null) {
+            return FlightRecordingStatus.builder().state("NONE").build();
+        }
+        return FlightRecordingStatus.builder()
+                .id(recording.getId())
+                .state(recording.getState().name())
+                .startedAt(recording.getStartTime())
+                .maxAgeSeconds(recording.getMaxAge() == null ? 0 : recording.getMaxAge().toSeconds())
+                .maxSizeBytes(recording.getMaxSize())
+                .sizeBytes(recording.getSize())
+                .build();
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
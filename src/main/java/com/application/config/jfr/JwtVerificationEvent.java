@@ -0,0 +1,25 @@
+package com.application.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.application.JwtVerification")
+@Label("JWT Verification")
+@Category({"Application", "Auth"})
+@Description("Signature and claims check of a JWT in JwtService.verify")
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Cached")
+    public boolean cached;
+
+    @Label("User Uuid Hash")
+    public String userUuidHash;
+
+    @Label("Outcome")
+    public String outcome;
+}
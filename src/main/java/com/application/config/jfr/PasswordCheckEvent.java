@@ -0,0 +1,25 @@
+package com.application.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.application.PasswordCheck")
+@Label("Password Check")
+@Category({"Application", "Auth"})
+@Description("BCrypt comparison, and rehash when the cost changed, on the password pool")
+@StackTrace(false)
+public class PasswordCheckEvent extends Event {
+
+    @Label("Matches")
+    public boolean matches;
+
+    @Label("Rehashed")
+    public boolean rehashed;
+
+    @Label("Stored Hash Length")
+    public int hashLength;
+}
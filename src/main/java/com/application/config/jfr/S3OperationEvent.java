@@ -0,0 +1,30 @@
+package com.application.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.application.S3Operation")
+@Label("S3 Operation")
+@Category({"Application", "Files"})
+@Description("A call made by S3FileService")
+@StackTrace(false)
+public class S3OperationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Key Hash")
+    public String keyHash;
+
+    @Label("Size")
+    @DataAmount
+    public long size;
+
+    @Label("Outcome")
+    public String outcome;
+}
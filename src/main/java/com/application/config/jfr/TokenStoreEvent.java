@@ -0,0 +1,28 @@
+package com.application.config.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.application.TokenStoreOperation")
+@Label("Token Store Operation")
+@Category({"Application", "Auth"})
+@Description("One Lua-script round trip of the Redis token store")
+@StackTrace(false)
+public class TokenStoreEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User Uuid Hash")
+    public String userUuidHash;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Evicted Sessions")
+    public int evicted;
+}
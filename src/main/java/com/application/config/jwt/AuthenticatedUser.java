@@ -0,0 +1,39 @@
+package com.application.config.jwt;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built from verified access-token claims alone, so authenticated requests do not
+ * need to load the {@code BaseUser} entity.
+ */
+@Getter
+public class AuthenticatedUser {
+
+    private final String uuid;
+    private final String role;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public AuthenticatedUser(String uuid, String role) {
+        this.uuid = uuid;
+        this.role = role;
+        this.authorities = role == null ? List.of() : List.of(new SimpleGrantedAuthority(role));
+    }
+
+    public static AuthenticatedUser from(Claims claims) {
+        return new AuthenticatedUser(
+                claims.get(JwtService.USER_CLAIM, String.class),
+                claims.get(JwtService.AUTHORITY_CLAIM, String.class)
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser(uuid=" + uuid + ", role=" + role + ")";
+    }
+}
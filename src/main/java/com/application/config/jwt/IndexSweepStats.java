@@ -0,0 +1,21 @@
+package com.application.config.jwt;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexSweepStats {
+
+    private long scanned;
+    private long removed;
+    private long timeSpentMillis;
+    private long completedPasses;
+    private Instant lastPassCompletedAt;
+}
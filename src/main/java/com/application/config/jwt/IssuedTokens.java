@@ -0,0 +1,4 @@
+package com.application.config.jwt;
+
+public record IssuedTokens(String accessToken, String refreshToken) {
+}
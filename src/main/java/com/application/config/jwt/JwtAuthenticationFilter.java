@@ -1,7 +1,7 @@
 package com.application.config.jwt;
 
 
-import com.application.baseuser.BaseUserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,15 +15,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final AccessTokenRepository accessTokenRepository;
-    private final BaseUserRepository baseUserRepository;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final UserSecurityVersions userSecurityVersions;
 
     @Override
     protected void doFilterInternal(
@@ -33,6 +32,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final Claims claims;
         final String userUuid;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -41,18 +41,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userUuid = jwtService.extractUserUuid(jwt);
+        claims = jwtService.verify(jwt);
+        userUuid = claims.get(JwtService.USER_CLAIM, String.class);
 
         if (userUuid != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            com.application.baseuser.BaseUser userDetails = baseUserRepository.findByUuid(userUuid);
-            Optional<AccessToken> storedToken = accessTokenRepository.findAllByUuid(userUuid).stream().filter(accessToken -> accessToken.getToken().equals(jwt)).findAny();
-
-            if (storedToken.isPresent() && !storedToken.get().isRevoked()) {
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (!tokenRevocationCache.isRevoked(jwt, claims)
+                    && jwtService.isTokenCurrent(userUuid, claims)
+                    && userSecurityVersions.isCurrent(userUuid, claims)) {
+                if (jwtService.isTokenValid(claims)) {
+                    AuthenticatedUser principal = AuthenticatedUser.from(claims);
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities()
+                            principal.getAuthorities()
                     );
                     authToken.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request)
@@ -1,11 +1,15 @@
 package com.application.config.jwt;
 
 import com.application.baseuser.BaseUser;
+import com.application.config.jfr.EventHashes;
+import com.application.config.jfr.JwtVerificationEvent;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
@@ -13,11 +17,19 @@ import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class JwtService {
+
+    public static final String USER_CLAIM = "user";
+    public static final String AUTHORITY_CLAIM = "authority";
+    public static final String SECURITY_VERSION_CLAIM = "sv";
+    public static final String EPOCH_CLAIM = "ep";
+
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
 
@@ -27,59 +39,113 @@ public class JwtService {
     @Value("${application.security.jwt.refresh-token.expiration}")
     private long refreshExpiration;
 
-    private final AccessTokenRepository accessTokenRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenStore tokenStore;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenEpochs tokenEpochs;
+
+    private Key signInKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+    }
+
+    public IssuedTokens issueTokens(BaseUser baseUser) {
+        IssuedTokens tokens = new IssuedTokens(generateAccessToken(baseUser), generateRefreshToken(baseUser));
+        TokenStore.Result result = tokenStore.issue(tokens.accessToken(), tokens.refreshToken(), baseUser.getUuid());
+        result.evictedAccessDigests().forEach(tokenRevocationCache::publishRevoked);
+        return tokens;
+    }
+
+    /**
+     * Exchanges a refresh token for a new pair. Empty when the refresh token was already used
+     * or revoked.
+     */
+    public Optional<IssuedTokens> rotateTokens(String refreshToken, BaseUser baseUser) {
+        IssuedTokens tokens = new IssuedTokens(generateAccessToken(baseUser), generateRefreshToken(baseUser));
+        TokenStore.Result result = tokenStore.rotate(refreshToken, tokens.accessToken(), tokens.refreshToken(),
+                baseUser.getUuid());
+        if (result.rotatedAccessDigest() != null) {
+            tokenRevocationCache.publishRevoked(result.rotatedAccessDigest());
+        }
+        result.evictedAccessDigests().forEach(tokenRevocationCache::publishRevoked);
+        return result.stored() ? Optional.of(tokens) : Optional.empty();
+    }
 
-    public String generateAccessToken(BaseUser baseUser) {
+    private String generateAccessToken(BaseUser baseUser) {
         Claims claims = Jwts.claims();
         String authority = baseUser.getAuthorities().stream()
                 .findFirst()
                 .map(GrantedAuthority::getAuthority)
                 .orElse(null);
-        claims.put("user", baseUser.getUuid());
-        claims.put("authority", authority);
-        String token = Jwts.builder()
+        claims.put(USER_CLAIM, baseUser.getUuid());
+        claims.put(AUTHORITY_CLAIM, authority);
+        claims.put(SECURITY_VERSION_CLAIM, baseUser.getSecurityVersion());
+        claims.put(EPOCH_CLAIM, tokenEpochs.load(baseUser.getUuid()));
+        return Jwts.builder()
 //                .setSubject(baseUser.getUuid())
                 .addClaims(claims)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
                 .signWith(getSignInKey(), SignatureAlgorithm.HS256)
                 .compact();
-
-        accessTokenRepository.save(AccessToken.create(token, baseUser.getUuid()));
-        return token;
     }
 
-    public String generateRefreshToken(BaseUser user) {
-        String token = Jwts.builder()
+    private String generateRefreshToken(BaseUser user) {
+        return Jwts.builder()
                 .setSubject(user.getUuid())
+                .claim(EPOCH_CLAIM, tokenEpochs.load(user.getUuid()))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
                 .signWith(getSignInKey(), SignatureAlgorithm.HS256)
                 .compact();
+    }
+
+    /**
+     * Ends the session the access token belongs to, leaving the user's other sessions signed in.
+     */
+    public void revokeSession(String accessToken, String userUuid) {
+        tokenStore.revokeSession(accessToken, userUuid);
+        tokenRevocationCache.publishRevoked(TokenDigest.compact(accessToken));
+    }
 
-        refreshTokenRepository.save(RefreshToken.create(token, user.getUsername()));
-        return token;
+    /**
+     * Revokes every access and refresh token of the user by advancing the token epoch.
+     */
+    public void revokeTokens(String userUuid) {
+        tokenEpochs.advance(userUuid);
     }
 
-    public void revokeTokens(String email) {
-        accessTokenRepository.findByUuid(email).ifPresent(accessToken -> {
-            accessToken.setRevoked(true);
-            accessTokenRepository.save(accessToken);
-        });
-        refreshTokenRepository.findByEmail(email).ifPresent(refreshToken -> {
-            refreshToken.setRevoked(true);
-            refreshTokenRepository.save(refreshToken);
-        });
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    public List<TokenStore.Session> sessions(String userUuid) {
+        return tokenStore.sessions(userUuid);
+    }
+
+    public boolean isTokenCurrent(String userUuid, Claims claims) {
+        return tokenEpochs.isCurrent(userUuid, claims);
     }
 
     public boolean isTokenValid(String token, BaseUser userDetails) {
-        final String userUuid = extractUserUuid(token);
-        return userUuid.equals(userDetails.getUuid()) && !isTokenExpired(token);
+        final Claims claims = verify(token);
+        final String userUuid = claims.get(USER_CLAIM, String.class);
+        return userDetails.getUuid().equals(userUuid) && isTokenValid(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(Claims claims) {
+        return !isTokenExpired(claims);
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     public String extractUsername(String token) {
@@ -87,28 +153,58 @@ public class JwtService {
     }
 
     public String extractUserUuid(String token) {
-        return extractClaim(token, claims -> claims.get("user", String.class));
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return extractClaim(token, claims -> claims.get(USER_CLAIM, String.class));
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the signature once and serves later lookups of the same token from the cache
+     * until it expires.
+     */
+    public Claims verify(String token) {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        String digest = TokenDigest.of(token);
+        Claims claims = verifiedTokenCache.get(digest);
+        boolean cached = claims != null;
+        try {
+            if (claims == null) {
+                claims = parse(token);
+                verifiedTokenCache.put(digest, claims);
+            }
+        } catch (RuntimeException e) {
+            commit(event, cached, null, e.getClass().getSimpleName());
+            throw e;
+        }
+        commit(event, cached, claims, "valid");
+        return claims;
+    }
+
+    private static void commit(JwtVerificationEvent event, boolean cached, Claims claims, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.cached = cached;
+            event.outcome = outcome;
+            if (claims != null) {
+                Object userUuid = claims.get(USER_CLAIM);
+                event.userUuidHash = EventHashes.of(userUuid != null ? userUuid.toString() : claims.getSubject());
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * Verifies without touching the cache, for bulk jobs that must not evict live entries.
+     */
+    Claims parse(String token) {
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 }
\ No newline at end of file
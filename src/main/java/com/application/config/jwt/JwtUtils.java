@@ -22,6 +22,9 @@ public class JwtUtils {
 
         Object principal = authentication.getPrincipal();
 
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.getUuid();
+        }
         if (principal instanceof BaseUser baseUser) {
             return baseUser.getUuid(); // UUID directly from your user class
         }
@@ -38,6 +41,9 @@ public class JwtUtils {
 
         Object principal = authentication.getPrincipal();
 
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.getRole();
+        }
         if (principal instanceof BaseUser baseUser) {
             return baseUser.getRole(); // UUID directly from your user class
         }
@@ -1,11 +0,0 @@
-package com.application.config.jwt;
-
-import org.springframework.data.repository.CrudRepository;
-
-import java.util.Optional;
-
-public interface RefreshTokenRepository extends CrudRepository<RefreshToken, String> {
-    Optional<RefreshToken> findByToken(String token);
-
-    Optional<RefreshToken> findByEmail(String email);
-}
@@ -0,0 +1,44 @@
+package com.application.config.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+public final class TokenDigest {
+
+    private static final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private TokenDigest() {
+    }
+
+    /**
+     * SHA-256 of the raw token, url-safe base64 without padding. Used as a map key so the
+     * full JWT string does not have to be retained or compared.
+     */
+    public static String of(String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256(token));
+    }
+
+    /**
+     * First 128 bits of the SHA-256, url-safe base64 without padding (22 characters). Short
+     * enough to keep Redis keys small, wide enough that collisions are not a concern.
+     */
+    public static String compact(String token) {
+        byte[] hash = sha256(token);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+    }
+
+    private static byte[] sha256(String token) {
+        MessageDigest digest = sha256.get();
+        digest.reset();
+        return digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,69 @@
+package com.application.config.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static com.application.common.enums.Constants.TOKEN_EPOCH_PREFIX;
+
+/**
+ * Per-user token epoch kept in Redis. Every token is issued with the user's current epoch, and
+ * advancing the epoch with a single {@code INCR} invalidates all of the user's sessions at once.
+ * Validation reads a local copy that is dropped when an advance is published on {@link #CHANNEL}
+ * and that expires on its own, so a lost message cannot pin a stale epoch.
+ */
+@Component
+public class TokenEpochs implements MessageListener {
+
+    public static final String CHANNEL = "token-epochs";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final VersionCache epochs;
+
+    public TokenEpochs(RedisTemplate<String, String> redisTemplate,
+                       @Value("${application.security.jwt.version-cache.max-size}") int maxSize,
+                       @Value("${application.security.jwt.version-cache.ttl-seconds}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.epochs = new VersionCache(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    /**
+     * Authoritative epoch read straight from Redis, used when issuing tokens.
+     */
+    public long load(String userUuid) {
+        long generation = epochs.generation();
+        String value = redisTemplate.opsForValue().get(TOKEN_EPOCH_PREFIX + userUuid);
+        long epoch = value == null ? 0L : Long.parseLong(value);
+        epochs.put(userUuid, epoch, generation);
+        return epoch;
+    }
+
+    public boolean isCurrent(String userUuid, Claims claims) {
+        Long claim = claims.get(JwtService.EPOCH_CLAIM, Long.class);
+        long issued = claim == null ? 0L : claim;
+        Long current = epochs.get(userUuid);
+        // Epochs only grow, so a token newer than the cache means the cache missed an advance
+        if (current == null || issued > current) {
+            current = load(userUuid);
+        }
+        return current == issued;
+    }
+
+    public long advance(String userUuid) {
+        Long epoch = redisTemplate.opsForValue().increment(TOKEN_EPOCH_PREFIX + userUuid);
+        epochs.invalidate(userUuid);
+        redisTemplate.convertAndSend(CHANNEL, userUuid);
+        return epoch == null ? 0L : epoch;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        epochs.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,18 @@
+package com.application.config.jwt;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenFootprintReport {
+
+    private int legacySampled;
+    private long legacyBytesPerSession;
+    private int compactSampled;
+    private long compactBytesPerSession;
+}
@@ -0,0 +1,238 @@
+package com.application.config.jwt;
+
+import com.application.config.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.application.config.jwt.TokenStore.LEGACY_ACCESS_KEYSPACE;
+import static com.application.config.jwt.TokenStore.LEGACY_REFRESH_KEYSPACE;
+
+/**
+ * Prunes members of the legacy {@code @Indexed} sets ({@code AccessToken:uuid:*},
+ * {@code RefreshToken:email:*} and the keyspace sets) whose token hash has already expired, and
+ * drops {@code :idx} sets left behind by expired hashes.
+ * <p>
+ * Work is split into small steps: every run spends at most {@code batchSize} on keys, set members
+ * and keyspace slots in total, checking members with one pipelined round trip. Keys are found
+ * with single {@code SCAN} calls, each charged its {@code COUNT}, so a step stays bounded even
+ * when hardly any key matches. Both the {@code SCAN} cursor and the {@code SSCAN} cursor of a
+ * partly swept set are kept between runs, so neither Redis nor the scheduler thread is held by a
+ * large keyspace or set.
+ */
+@Slf4j
+@Component
+public class TokenIndexSweeper {
+
+    private static final List<String> KEYSPACES = List.of(LEGACY_ACCESS_KEYSPACE, LEGACY_REFRESH_KEYSPACE);
+    private static final RedisScript<List<Object>> SCAN = RedisScripts.list("scripts/token-index-scan.lua");
+    private static final String INITIAL_CURSOR = "0";
+
+    private final RedisTemplate<String, byte[]> tokenRedisTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    private final AtomicLong timeSpentNanos = new AtomicLong();
+    private final AtomicLong completedPasses = new AtomicLong();
+    private volatile Instant lastPassCompletedAt;
+
+    // Only touched from the scheduler thread
+    private int keyspaceIndex;
+    // Null until the keyspace's scan starts; SCAN hands back INITIAL_CURSOR once it is finished
+    private String scanCursor;
+    private boolean scanFinished;
+    private final ArrayDeque<String> pendingKeys = new ArrayDeque<>();
+    private String memberSetKey;
+    private Cursor<byte[]> memberCursor;
+
+    public TokenIndexSweeper(RedisTemplate<String, byte[]> tokenRedisTemplate,
+                             @Value("${application.security.jwt.store.sweep-enabled}") boolean enabled,
+                             @Value("${application.security.jwt.store.sweep-batch-size}") int batchSize) {
+        this.tokenRedisTemplate = tokenRedisTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${application.security.jwt.store.sweep-interval}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            step();
+        } catch (RuntimeException e) {
+            log.warn("Token index sweep step failed, restarting the pass", e);
+            closeMemberCursor();
+            resetScan();
+            keyspaceIndex = 0;
+        } finally {
+            timeSpentNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    public IndexSweepStats stats() {
+        return IndexSweepStats.builder()
+                .scanned(scanned.get())
+                .removed(removed.get())
+                .timeSpentMillis(timeSpentNanos.get() / 1_000_000)
+                .completedPasses(completedPasses.get())
+                .lastPassCompletedAt(lastPassCompletedAt)
+                .build();
+    }
+
+    private void step() {
+        // Keyspace slots scanned, keys visited and set members checked all count against the
+        // same budget
+        int budget = batchSize;
+        if (memberCursor != null) {
+            budget -= pruneSet(budget);
+            if (memberCursor != null) {
+                return;
+            }
+        }
+
+        String keyspace = KEYSPACES.get(keyspaceIndex);
+        String prefix = keyspace + ":";
+        if (scanCursor == null) {
+            scanCursor = INITIAL_CURSOR;
+            // The keyspace set itself does not match the scan pattern
+            openSet(keyspace);
+            budget -= pruneSet(budget);
+            if (memberCursor != null) {
+                return;
+            }
+        }
+
+        while (budget > 0) {
+            String key = pendingKeys.poll();
+            if (key == null) {
+                if (scanFinished) {
+                    break;
+                }
+                budget -= scanKeys(prefix, budget);
+                continue;
+            }
+            budget--;
+            scanned.incrementAndGet();
+            String rest = key.substring(prefix.length());
+            if (rest.endsWith(":idx")) {
+                String hash = key.substring(0, key.length() - ":idx".length());
+                if (!Boolean.TRUE.equals(tokenRedisTemplate.hasKey(hash))) {
+                    tokenRedisTemplate.delete(key);
+                    removed.incrementAndGet();
+                }
+            } else if (rest.indexOf(':') >= 0 && !rest.endsWith(":phantom")) {
+                openSet(key);
+                budget -= pruneSet(budget);
+                if (memberCursor != null) {
+                    return;
+                }
+            }
+        }
+
+        if (scanFinished && pendingKeys.isEmpty()) {
+            resetScan();
+            keyspaceIndex = (keyspaceIndex + 1) % KEYSPACES.size();
+            if (keyspaceIndex == 0) {
+                completedPasses.incrementAndGet();
+                lastPassCompletedAt = Instant.now();
+            }
+        }
+    }
+
+    /**
+     * Issues one {@code SCAN} with a {@code COUNT} of {@code budget} and queues the keys it
+     * returns. Returns the budget used, the slots Redis was asked to visit.
+     */
+    private int scanKeys(String prefix, int budget) {
+        List<Object> reply = tokenRedisTemplate.execute(SCAN, List.of(),
+                bytes(scanCursor), bytes(prefix + "*"), bytes(String.valueOf(budget)));
+        scanCursor = new String((byte[]) reply.get(0), StandardCharsets.UTF_8);
+        scanFinished = INITIAL_CURSOR.equals(scanCursor);
+        for (Object key : (List<?>) reply.get(1)) {
+            pendingKeys.add(new String((byte[]) key, StandardCharsets.UTF_8));
+        }
+        return budget;
+    }
+
+    private void openSet(String setKey) {
+        memberSetKey = setKey;
+        memberCursor = tokenRedisTemplate.opsForSet().scan(setKey, ScanOptions.scanOptions().count(batchSize).build());
+    }
+
+    /**
+     * Checks at most {@code budget} more members of the open set and returns how many it checked.
+     * The set's cursor is closed once it is exhausted and otherwise kept for the next step, so a
+     * set with millions of members is swept over many steps.
+     */
+    private int pruneSet(int budget) {
+        List<byte[]> batch = new ArrayList<>(Math.max(0, budget));
+        while (batch.size() < budget && memberCursor.hasNext()) {
+            batch.add(memberCursor.next());
+        }
+        if (!batch.isEmpty()) {
+            String keyspace = KEYSPACES.get(keyspaceIndex);
+            pruneMembers(memberSetKey, keyspace + ":", batch);
+        }
+        if (!memberCursor.hasNext()) {
+            closeMemberCursor();
+        }
+        return batch.size();
+    }
+
+    private void pruneMembers(String setKey, String prefix, List<byte[]> members) {
+        List<Object> exists = tokenRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] member : members) {
+                connection.keyCommands().exists((prefix + new String(member, StandardCharsets.UTF_8))
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+
+        List<Object> dead = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            if (!Boolean.TRUE.equals(exists.get(i))) {
+                dead.add(members.get(i));
+            }
+        }
+        scanned.addAndGet(members.size());
+        if (!dead.isEmpty()) {
+            Long count = tokenRedisTemplate.opsForSet().remove(setKey, dead.toArray());
+            removed.addAndGet(count == null ? 0 : count);
+        }
+    }
+
+    private void closeMemberCursor() {
+        if (memberCursor != null) {
+            memberCursor.close();
+            memberCursor = null;
+            memberSetKey = null;
+        }
+    }
+
+    private void resetScan() {
+        scanCursor = null;
+        scanFinished = false;
+        pendingKeys.clear();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
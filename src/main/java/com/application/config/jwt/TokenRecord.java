@@ -0,0 +1,44 @@
+package com.application.config.jwt;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Packed value stored for every issued token:
+ * <pre>
+ * byte 0      format version
+ * byte 1      flags, bit 0 = revoked
+ * bytes 2-17  owner uuid
+ * </pre>
+ * Expiry is carried by the key's TTL and the token itself, so it is not repeated here. The
+ * Lua scripts read and flip the flags byte directly.
+ */
+public final class TokenRecord {
+
+    public static final int LENGTH = 18;
+
+    private static final byte VERSION = 1;
+    private static final byte REVOKED = 1;
+
+    private TokenRecord() {
+    }
+
+    public static byte[] pack(String userUuid, boolean revoked) {
+        UUID uuid = UUID.fromString(userUuid);
+        return ByteBuffer.allocate(LENGTH)
+                .put(VERSION)
+                .put(revoked ? REVOKED : 0)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static boolean isRevoked(byte[] record) {
+        return (record[1] & REVOKED) != 0;
+    }
+
+    public static String userUuid(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record, 2, 16);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
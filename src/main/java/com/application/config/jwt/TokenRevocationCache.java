@@ -0,0 +1,103 @@
+package com.application.config.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Near cache of access-token revocation status. The stored token is looked up by its id once per
+ * node; afterwards the answer is served locally until the token expires or a revocation is
+ * published on {@link #CHANNEL}. A status read while a revocation was being processed is not
+ * kept, so a lookup racing with a revocation cannot cache the token as live after it.
+ */
+@Component
+public class TokenRevocationCache implements MessageListener {
+
+    public static final String CHANNEL = "token-revocations";
+
+    private final TokenStore tokenStore;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final int maxSize;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TokenRevocationCache(TokenStore tokenStore,
+                                RedisTemplate<String, String> redisTemplate,
+                                @Value("${application.security.jwt.revocation-cache.max-size}") int maxSize) {
+        this.tokenStore = tokenStore;
+        this.redisTemplate = redisTemplate;
+        this.maxSize = maxSize;
+    }
+
+    public boolean isRevoked(String token, Claims claims) {
+        String digest = TokenDigest.compact(token);
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(digest);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.revoked();
+        }
+
+        long generation = invalidations.get();
+        // A token that is not stored was never issued by us or has already expired
+        boolean revoked = tokenStore.lookup(token) != TokenStore.Status.ACTIVE;
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            put(digest, new Entry(revoked, expiration.getTime()), now, generation);
+        }
+        return revoked;
+    }
+
+    /**
+     * Tells every node, including this one, to drop its cached status for the token with the
+     * given {@link TokenDigest#compact(String) compact digest}.
+     */
+    public void publishRevoked(String digest) {
+        invalidations.incrementAndGet();
+        entries.remove(digest);
+        redisTemplate.convertAndSend(CHANNEL, digest);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        invalidations.incrementAndGet();
+        entries.remove(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    // Kept only if no invalidation arrived since the caller took the generation, also one that
+    // slipped in between the check and the put
+    private void put(String digest, Entry entry, long now, long generation) {
+        if (invalidations.get() != generation) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(digest, entry);
+        if (invalidations.get() != generation) {
+            entries.remove(digest, entry);
+        }
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(boolean revoked, long expiresAt) {
+    }
+}
@@ -0,0 +1,245 @@
+package com.application.config.jwt;
+
+import com.application.config.RedisScripts;
+import com.application.config.jfr.EventHashes;
+import com.application.config.jfr.TokenStoreEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.application.common.enums.Constants.ACCESS_TOKEN_PREFIX;
+import static com.application.common.enums.Constants.REFRESH_TOKEN_PREFIX;
+import static com.application.common.enums.Constants.SESSION_INDEX_PREFIX;
+
+/**
+ * Redis store for issued tokens. Every operation is a single Lua script, so each one costs
+ * one round trip and stays atomic under concurrent logins, refreshes and revocations.
+ * <p>
+ * A token is kept as a plain string key made of a short prefix and
+ * {@link TokenDigest#compact(String)}, holding a {@link TokenRecord}. Each user also has a
+ * session index, a sorted set of issued pairs scored by issue time and capped at
+ * {@code max-sessions-per-user}; the oldest sessions are deleted when a new one goes over the
+ * cap. Lookups, revocation and rotation still fall back to the legacy
+ * {@code AccessToken}/{@code RefreshToken} hashes until {@link TokenStoreMigration} has moved
+ * them.
+ */
+@Component
+public class TokenStore {
+
+    public enum Status {
+        ABSENT,
+        ACTIVE,
+        REVOKED
+    }
+
+    /**
+     * Outcome of storing a pair. {@code rotatedAccessDigest} is the compact digest of the access
+     * token revoked by a rotation, null when there was none. {@code evictedAccessDigests} lists
+     * the compact digests of access tokens whose sessions were dropped to stay under the
+     * per-user cap.
+     */
+    public record Result(boolean stored, String rotatedAccessDigest, List<String> evictedAccessDigests) {
+    }
+
+    public record Session(String id, Instant issuedAt) {
+    }
+
+    static final String LEGACY_ACCESS_KEYSPACE = "AccessToken";
+    static final String LEGACY_REFRESH_KEYSPACE = "RefreshToken";
+
+    private static final int DIGEST_LENGTH = 22;
+
+    private static final String SESSION_FUNCTIONS = "scripts/token-session.lua";
+
+    private static final RedisScript<List<Object>> ISSUE = RedisScripts.list(SESSION_FUNCTIONS, "scripts/token-issue.lua");
+    private static final RedisScript<Long> LOOKUP = RedisScripts.number("scripts/token-lookup.lua");
+    private static final RedisScript<Long> REVOKE = RedisScripts.number("scripts/token-revoke.lua");
+    private static final RedisScript<Long> LOGOUT = RedisScripts.number("scripts/token-logout.lua");
+    private static final RedisScript<List<Object>> ROTATE = RedisScripts.list(SESSION_FUNCTIONS, "scripts/token-rotate.lua");
+
+    private final RedisTemplate<String, byte[]> tokenRedisTemplate;
+    private final long refreshExpiration;
+    private final byte[] accessTtlSeconds;
+    private final byte[] refreshTtlSeconds;
+    private final byte[] maxSessions;
+
+    public TokenStore(RedisTemplate<String, byte[]> tokenRedisTemplate,
+                      @Value("${application.security.jwt.expiration}") long jwtExpiration,
+                      @Value("${application.security.jwt.refresh-token.expiration}") long refreshExpiration,
+                      @Value("${application.security.jwt.store.max-sessions-per-user}") int maxSessions) {
+        this.tokenRedisTemplate = tokenRedisTemplate;
+        this.refreshExpiration = refreshExpiration;
+        this.accessTtlSeconds = bytes(jwtExpiration / 1000);
+        this.refreshTtlSeconds = bytes(refreshExpiration / 1000);
+        this.maxSessions = bytes(maxSessions);
+    }
+
+    public Result issue(String accessToken, String refreshToken, String userUuid) {
+        TokenStoreEvent event = new TokenStoreEvent();
+        event.begin();
+        List<?> result = tokenRedisTemplate.execute(ISSUE,
+                List.of(accessKey(accessToken), refreshKey(refreshToken), sessionKey(userUuid)),
+                TokenRecord.pack(userUuid, false), accessTtlSeconds, refreshTtlSeconds,
+                sessionMember(accessToken, refreshToken), bytes(System.currentTimeMillis()), maxSessions,
+                bytes(ACCESS_TOKEN_PREFIX), bytes(REFRESH_TOKEN_PREFIX));
+        Result stored = result(result, false);
+        commit(event, "issue", userUuid, stored);
+        return stored;
+    }
+
+    public Status lookup(String accessToken) {
+        TokenStoreEvent event = new TokenStoreEvent();
+        event.begin();
+        Long result = tokenRedisTemplate.execute(LOOKUP,
+                List.of(accessKey(accessToken), legacyAccessKey(accessToken)));
+        Status status;
+        if (result == null || result == 0L) {
+            status = Status.ABSENT;
+        } else {
+            status = result == 1L ? Status.ACTIVE : Status.REVOKED;
+        }
+        commit(event, "lookup", null, status.name(), 0);
+        return status;
+    }
+
+    public boolean revoke(String accessToken) {
+        TokenStoreEvent event = new TokenStoreEvent();
+        event.begin();
+        Long result = tokenRedisTemplate.execute(REVOKE,
+                List.of(accessKey(accessToken), legacyAccessKey(accessToken)));
+        boolean revoked = result != null && result == 1L;
+        commit(event, "revoke", null, revoked ? "REVOKED" : "ABSENT", 0);
+        return revoked;
+    }
+
+    /**
+     * Revokes the access token and the refresh token issued with it, and removes their session
+     * from the owner's index. Legacy tokens only have the access token revoked.
+     */
+    public boolean revokeSession(String accessToken, String userUuid) {
+        TokenStoreEvent event = new TokenStoreEvent();
+        event.begin();
+        Long result = tokenRedisTemplate.execute(LOGOUT,
+                List.of(accessKey(accessToken), legacyAccessKey(accessToken), sessionKey(userUuid)),
+                bytes(TokenDigest.compact(accessToken)), bytes(REFRESH_TOKEN_PREFIX));
+        boolean revoked = result != null && result == 1L;
+        commit(event, "logout", userUuid, revoked ? "REVOKED" : "ABSENT", 0);
+        return revoked;
+    }
+
+    /**
+     * Atomically revokes {@code presentedRefreshToken}, and the access token issued with it, and
+     * stores the new pair in their place. The result is not {@code stored}, and nothing changes,
+     * when the presented token is unknown or already revoked.
+     */
+    public Result rotate(String presentedRefreshToken, String accessToken, String refreshToken, String userUuid) {
+        TokenStoreEvent event = new TokenStoreEvent();
+        event.begin();
+        List<?> result = tokenRedisTemplate.execute(ROTATE,
+                List.of(refreshKey(presentedRefreshToken), legacyRefreshKey(presentedRefreshToken),
+                        accessKey(accessToken), refreshKey(refreshToken), sessionKey(userUuid)),
+                TokenRecord.pack(userUuid, false), accessTtlSeconds, refreshTtlSeconds,
+                sessionMember(accessToken, refreshToken), bytes(System.currentTimeMillis()), maxSessions,
+                bytes(ACCESS_TOKEN_PREFIX), bytes(REFRESH_TOKEN_PREFIX), bytes(TokenDigest.compact(presentedRefreshToken)));
+        Result stored = result(result, true);
+        commit(event, "rotate", userUuid, stored);
+        return stored;
+    }
+
+    /**
+     * Live sessions of the user, oldest first, read from the session index alone.
+     */
+    public List<Session> sessions(String userUuid) {
+        TokenStoreEvent event = new TokenStoreEvent();
+        event.begin();
+        long oldestLive = System.currentTimeMillis() - refreshExpiration;
+        Set<ZSetOperations.TypedTuple<byte[]>> entries = tokenRedisTemplate.opsForZSet()
+                .rangeByScoreWithScores(sessionKey(userUuid), oldestLive, Double.POSITIVE_INFINITY);
+        if (entries == null) {
+            commit(event, "sessions", userUuid, "0", 0);
+            return List.of();
+        }
+        List<Session> sessions = new ArrayList<>(entries.size());
+        for (ZSetOperations.TypedTuple<byte[]> entry : entries) {
+            String member = new String(entry.getValue(), StandardCharsets.US_ASCII);
+            sessions.add(new Session(member.substring(0, DIGEST_LENGTH),
+                    Instant.ofEpochMilli(entry.getScore().longValue())));
+        }
+        commit(event, "sessions", userUuid, String.valueOf(sessions.size()), 0);
+        return sessions;
+    }
+
+    private static void commit(TokenStoreEvent event, String operation, String userUuid, Result result) {
+        commit(event, operation, userUuid, result.stored() ? "STORED" : "REJECTED", result.evictedAccessDigests().size());
+    }
+
+    private static void commit(TokenStoreEvent event, String operation, String userUuid, String outcome, int evicted) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.userUuidHash = EventHashes.of(userUuid);
+            event.outcome = outcome;
+            event.evicted = evicted;
+            event.commit();
+        }
+    }
+
+    // {'1', [rotated access digest or '',] evicted access digests...}, or {'0'}
+    private static Result result(List<?> result, boolean rotated) {
+        if (result == null || result.isEmpty() || !"1".equals(string(result.get(0)))) {
+            return new Result(false, null, List.of());
+        }
+        int first = rotated ? 2 : 1;
+        String rotatedAccessDigest = rotated ? string(result.get(1)) : "";
+        List<String> evicted = new ArrayList<>(Math.max(0, result.size() - first));
+        for (int i = first; i < result.size(); i++) {
+            evicted.add(string(result.get(i)));
+        }
+        return new Result(true, rotatedAccessDigest.isEmpty() ? null : rotatedAccessDigest, evicted);
+    }
+
+    private static String string(Object value) {
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.US_ASCII) : String.valueOf(value);
+    }
+
+    // Refresh digest followed by access digest; the scripts split it at DIGEST_LENGTH
+    private static byte[] sessionMember(String accessToken, String refreshToken) {
+        return bytes(TokenDigest.compact(refreshToken) + TokenDigest.compact(accessToken));
+    }
+
+    private static String sessionKey(String userUuid) {
+        return SESSION_INDEX_PREFIX + userUuid;
+    }
+
+    static String accessKey(String accessToken) {
+        return ACCESS_TOKEN_PREFIX + TokenDigest.compact(accessToken);
+    }
+
+    static String refreshKey(String refreshToken) {
+        return REFRESH_TOKEN_PREFIX + TokenDigest.compact(refreshToken);
+    }
+
+    private static String legacyAccessKey(String accessToken) {
+        return LEGACY_ACCESS_KEYSPACE + ":" + accessToken;
+    }
+
+    private static String legacyRefreshKey(String refreshToken) {
+        return LEGACY_REFRESH_KEYSPACE + ":" + refreshToken;
+    }
+
+    private static byte[] bytes(long value) {
+        return bytes(String.valueOf(value));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
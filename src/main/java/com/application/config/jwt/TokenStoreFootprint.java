@@ -0,0 +1,98 @@
+package com.application.config.jwt;
+
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.application.common.enums.Constants.ACCESS_TOKEN_PREFIX;
+import static com.application.common.enums.Constants.REFRESH_TOKEN_PREFIX;
+import static com.application.config.jwt.TokenStore.LEGACY_ACCESS_KEYSPACE;
+import static com.application.config.jwt.TokenStore.LEGACY_REFRESH_KEYSPACE;
+
+/**
+ * Samples live token keys with {@code MEMORY USAGE} and reports the average bytes one session
+ * (an access plus a refresh token) costs in the legacy and in the compact layout.
+ */
+@Component
+public class TokenStoreFootprint {
+
+    private static final byte[] USAGE = "USAGE".getBytes(StandardCharsets.US_ASCII);
+
+    // Each legacy token id is also a member of the keyspace set and of one index set
+    private static final int LEGACY_SET_MEMBERSHIPS = 2;
+
+    private final RedisTemplate<String, byte[]> tokenRedisTemplate;
+
+    public TokenStoreFootprint(RedisTemplate<String, byte[]> tokenRedisTemplate) {
+        this.tokenRedisTemplate = tokenRedisTemplate;
+    }
+
+    public TokenFootprintReport report(int sampleSize) {
+        Sample legacyAccess = sampleLegacy(LEGACY_ACCESS_KEYSPACE, sampleSize);
+        Sample legacyRefresh = sampleLegacy(LEGACY_REFRESH_KEYSPACE, sampleSize);
+        Sample compactAccess = sample(ACCESS_TOKEN_PREFIX + "*", sampleSize);
+        Sample compactRefresh = sample(REFRESH_TOKEN_PREFIX + "*", sampleSize);
+
+        return TokenFootprintReport.builder()
+                .legacySampled(legacyAccess.count() + legacyRefresh.count())
+                .legacyBytesPerSession(legacyAccess.average() + legacyRefresh.average())
+                .compactSampled(compactAccess.count() + compactRefresh.count())
+                .compactBytesPerSession(compactAccess.average() + compactRefresh.average())
+                .build();
+    }
+
+    private Sample sampleLegacy(String keyspace, int sampleSize) {
+        String prefix = keyspace + ":";
+        long total = 0;
+        int count = 0;
+        for (String key : keys(prefix + "*", sampleSize * 4)) {
+            String token = key.substring(prefix.length());
+            if (token.indexOf(':') >= 0 || count == sampleSize) {
+                continue;
+            }
+            total += memoryUsage(key) + memoryUsage(key + ":idx") + memoryUsage(key + ":phantom")
+                    + (long) LEGACY_SET_MEMBERSHIPS * token.length();
+            count++;
+        }
+        return new Sample(count, total);
+    }
+
+    private Sample sample(String pattern, int sampleSize) {
+        long total = 0;
+        int count = 0;
+        for (String key : keys(pattern, sampleSize)) {
+            total += memoryUsage(key);
+            count++;
+        }
+        return new Sample(count, total);
+    }
+
+    private List<String> keys(String pattern, int limit) {
+        List<String> keys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(500).build();
+        try (Cursor<String> cursor = tokenRedisTemplate.scan(options)) {
+            while (cursor.hasNext() && keys.size() < limit) {
+                keys.add(cursor.next());
+            }
+        }
+        return keys;
+    }
+
+    private long memoryUsage(String key) {
+        Long bytes = tokenRedisTemplate.execute((RedisCallback<Long>) connection ->
+                (Long) connection.execute("MEMORY", USAGE, key.getBytes(StandardCharsets.UTF_8)));
+        return bytes == null ? 0 : bytes;
+    }
+
+    private record Sample(int count, long total) {
+        long average() {
+            return count == 0 ? 0 : total / count;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.application.config.jwt;
+
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.application.config.jwt.TokenStore.LEGACY_ACCESS_KEYSPACE;
+import static com.application.config.jwt.TokenStore.LEGACY_REFRESH_KEYSPACE;
+
+/**
+ * Moves tokens stored by the former {@code @RedisHash} repositories into the compact
+ * {@link TokenStore} layout. Runs once in the background after startup; records are converted
+ * one by one, so it is safe to run on several nodes at the same time or to interrupt.
+ */
+@Slf4j
+@Component
+public class TokenStoreMigration {
+
+    private static final RedisScript<Long> MIGRATE =
+            RedisScript.of(new ClassPathResource("scripts/token-migrate.lua"), Long.class);
+    private static final byte[] NOT_CONVERTIBLE = new byte[0];
+
+    private final RedisTemplate<String, byte[]> tokenRedisTemplate;
+    private final JwtService jwtService;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public TokenStoreMigration(RedisTemplate<String, byte[]> tokenRedisTemplate,
+                               JwtService jwtService,
+                               @Value("${application.security.jwt.store.migrate-legacy}") boolean enabled,
+                               @Value("${application.security.jwt.store.scan-batch-size}") int batchSize) {
+        this.tokenRedisTemplate = tokenRedisTemplate;
+        this.jwtService = jwtService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            Thread.ofVirtual().name("token-store-migration").start(this::migrate);
+        }
+    }
+
+    void migrate() {
+        try {
+            long access = migrate(LEGACY_ACCESS_KEYSPACE);
+            long refresh = migrate(LEGACY_REFRESH_KEYSPACE);
+            log.info("Token store migration finished: {} access and {} refresh tokens moved", access, refresh);
+        } catch (RuntimeException e) {
+            log.error("Token store migration stopped", e);
+        }
+    }
+
+    private long migrate(String keyspace) {
+        String prefix = keyspace + ":";
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(batchSize).build();
+        long moved = 0;
+        try (Cursor<String> cursor = tokenRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                String token = key.substring(prefix.length());
+                // Index sets, idx and phantom keys share the prefix but always contain a colon
+                if (token.indexOf(':') >= 0) {
+                    continue;
+                }
+                moved += migrateRecord(keyspace, key, token);
+            }
+        }
+        return moved;
+    }
+
+    private long migrateRecord(String keyspace, String key, String token) {
+        boolean access = LEGACY_ACCESS_KEYSPACE.equals(keyspace);
+        HashOperations<String, String, String> hashes = tokenRedisTemplate.opsForHash();
+        List<String> fields = hashes.multiGet(key, List.of("uuid", "revoked"));
+
+        byte[] record;
+        try {
+            String userUuid = access ? fields.get(0) : jwtService.parse(token).getSubject();
+            record = userUuid == null ? NOT_CONVERTIBLE : TokenRecord.pack(userUuid, "1".equals(fields.get(1)));
+        } catch (JwtException | IllegalArgumentException e) {
+            // Expired or foreign token: nothing worth keeping, the record is only cleaned up
+            record = NOT_CONVERTIBLE;
+        }
+
+        Long result = tokenRedisTemplate.execute(MIGRATE,
+                List.of(key, key + ":idx", keyspace, access ? TokenStore.accessKey(token) : TokenStore.refreshKey(token)),
+                token.getBytes(StandardCharsets.US_ASCII), record);
+        return result == null ? 0 : result;
+    }
+}
@@ -0,0 +1,74 @@
+package com.application.config.jwt;
+
+import com.application.baseuser.BaseUserRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Current security version per user. Access tokens carry the version they were issued with; a
+ * role or activation change bumps the stored version and publishes the user uuid on
+ * {@link #CHANNEL} so older tokens stop authenticating on every node. The local copy also
+ * expires on its own, and a token carrying a newer version than the cached one forces a reload.
+ */
+@Component
+public class UserSecurityVersions implements MessageListener {
+
+    public static final String CHANNEL = "user-security-versions";
+
+    private final BaseUserRepository baseUserRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final VersionCache versions;
+
+    public UserSecurityVersions(BaseUserRepository baseUserRepository,
+                                RedisTemplate<String, String> redisTemplate,
+                                @Value("${application.security.jwt.version-cache.max-size}") int maxSize,
+                                @Value("${application.security.jwt.version-cache.ttl-seconds}") long ttlSeconds) {
+        this.baseUserRepository = baseUserRepository;
+        this.redisTemplate = redisTemplate;
+        this.versions = new VersionCache(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public boolean isCurrent(String userUuid, Claims claims) {
+        Integer claim = claims.get(JwtService.SECURITY_VERSION_CLAIM, Integer.class);
+        long issued = claim == null ? 0 : claim;
+        Long current = versions.get(userUuid);
+        // Versions only grow, so a token newer than the cache means the cache missed a bump
+        if (current == null || issued > current) {
+            current = load(userUuid);
+            if (current == null) {
+                return false;
+            }
+        }
+        return current == issued;
+    }
+
+    /**
+     * Call after the bumped version has been saved.
+     */
+    public void invalidate(String userUuid) {
+        versions.invalidate(userUuid);
+        redisTemplate.convertAndSend(CHANNEL, userUuid);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        versions.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private Long load(String userUuid) {
+        long generation = versions.generation();
+        Integer version = baseUserRepository.findSecurityVersionByUuid(userUuid);
+        if (version == null) {
+            return null;
+        }
+        versions.put(userUuid, version, generation);
+        return version.longValue();
+    }
+}
@@ -0,0 +1,71 @@
+package com.application.config.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of claims whose signature has already been verified, keyed by token digest.
+ * Entries leave the cache when the token's own {@code exp} passes or when the cache is full.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final int maxSize;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public VerifiedTokenCache(@Value("${application.security.jwt.verified-cache.max-size}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Claims get(String digest) {
+        Entry entry = entries.get(digest);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(digest, entry);
+            return null;
+        }
+        return entry.claims();
+    }
+
+    public void put(String digest, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(digest, new Entry(claims, expiration.getTime()));
+    }
+
+    public void invalidate(String digest) {
+        entries.remove(digest);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+
+        // Still full of live tokens: drop an arbitrary tenth, they will simply be verified again
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(Claims claims, long expiresAt) {
+    }
+}
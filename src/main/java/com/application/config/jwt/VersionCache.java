@@ -0,0 +1,88 @@
+package com.application.config.jwt;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded local copy of per-user counters that only ever grow, such as security versions and
+ * token epochs. Entries expire after {@code ttl}, so a lost pub/sub invalidation is repaired
+ * within that time.
+ * <p>
+ * A value read from the store is only kept if no invalidation arrived while it was being read:
+ * callers take {@link #generation()} before the read and pass it to {@link #put}. Otherwise a
+ * read racing with a bump on another node could cache the old value after the bump's
+ * invalidation was processed.
+ */
+final class VersionCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    VersionCache(int maxSize, Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Cached value, or null when absent or expired.
+     */
+    Long get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    long generation() {
+        return invalidations.get();
+    }
+
+    void put(String key, long value, long generation) {
+        if (invalidations.get() != generation) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        Entry entry = new Entry(value, now + ttlMillis);
+        // Never replace a higher value, the counters only grow
+        Entry kept = entries.merge(key, entry, (cached, loaded) -> loaded.value() >= cached.value() ? loaded : cached);
+        if (kept == entry && invalidations.get() != generation) {
+            // An invalidation slipped in between the check above and the merge
+            entries.remove(key, entry);
+        }
+    }
+
+    void invalidate(String key) {
+        invalidations.incrementAndGet();
+        entries.remove(key);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(long value, long expiresAt) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.application.config.mail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template split once into its static fragments and {@code {{name}}} placeholders. Rendering
+ * appends the fragments as they are and the HTML-escaped values in between, into a builder sized
+ * up front.
+ */
+final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    // fragments[i] is followed by the value of variables[i]; the last fragment has no variable
+    private final String[] fragments;
+    private final String[] variables;
+    private final int staticLength;
+
+    private CompiledTemplate(String[] fragments, String[] variables) {
+        this.fragments = fragments;
+        this.variables = variables;
+        int length = 0;
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        this.staticLength = length;
+    }
+
+    static CompiledTemplate compile(String source) {
+        List<String> fragments = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, from)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            fragments.add(source.substring(from, open));
+            variables.add(source.substring(open + OPEN.length(), close).trim());
+            from = close + CLOSE.length();
+        }
+        fragments.add(source.substring(from));
+        return new CompiledTemplate(fragments.toArray(String[]::new), variables.toArray(String[]::new));
+    }
+
+    String render(Map<String, ?> model) {
+        String[] values = new String[variables.length];
+        int length = staticLength;
+        for (int i = 0; i < variables.length; i++) {
+            Object value = model.get(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for template variable " + variables[i]);
+            }
+            values[i] = value.toString();
+            length += values[i].length();
+        }
+
+        // Escaping rarely grows the output by much, a little headroom avoids most regrowth
+        StringBuilder out = new StringBuilder(length + 16);
+        for (int i = 0; i < values.length; i++) {
+            out.append(fragments[i]);
+            escape(values[i], out);
+        }
+        return out.append(fragments[fragments.length - 1]).toString();
+    }
+
+    private static void escape(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
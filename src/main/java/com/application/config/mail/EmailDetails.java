@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -14,5 +16,8 @@ public class EmailDetails {
     private String recipient;
     private String msgBody;
     private String subject;
-    private String attachment;
+    /**
+     * S3 keys of files to attach.
+     */
+    private List<String> attachments;
 }
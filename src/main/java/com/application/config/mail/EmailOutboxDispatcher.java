@@ -0,0 +1,157 @@
+package com.application.config.mail;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Drains {@link EmailOutbox}. Every poll claims up to {@code batch-size} due rows, groups them
+ * by recipient domain and hands each group to a worker as one batch for
+ * {@link EmailService#sendMails}. A claim pushes the row's next attempt out by {@code lease-seconds}, so
+ * several nodes can poll the same table and a row held by a node that died is picked up again
+ * once the lease runs out. Failed sends are retried with exponential backoff until
+ * {@code max-attempts} is reached.
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 512;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+    private final ExecutorService workers;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 EmailService emailService,
+                                 @Value("${application.mail.outbox.enabled}") boolean enabled,
+                                 @Value("${application.mail.outbox.workers}") int workers,
+                                 @Value("${application.mail.outbox.batch-size}") int batchSize,
+                                 @Value("${application.mail.outbox.max-attempts}") int maxAttempts,
+                                 @Value("${application.mail.outbox.lease-seconds}") long leaseSeconds,
+                                 @Value("${application.mail.outbox.base-backoff-seconds}") long baseBackoffSeconds,
+                                 @Value("${application.mail.outbox.max-backoff-seconds}") long maxBackoffSeconds,
+                                 @Value("${application.mail.outbox.retention-days}") long retentionDays) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.retention = Duration.ofDays(retentionDays);
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.mail.outbox.poll-interval}")
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            Map<String, List<EmailOutbox>> byDomain = new LinkedHashMap<>();
+            for (EmailOutbox email : emailOutboxRepository.findDue(now, PageRequest.of(0, batchSize))) {
+                if (emailOutboxRepository.claim(email.getId(), email.getNextAttemptAt(), now.plus(lease)) == 1) {
+                    // Keep the count the claim left on the row, the outcome updates are matched on it
+                    email.setAttempts(email.getAttempts() + 1);
+                    byDomain.computeIfAbsent(EmailServiceImpl.domainOf(email.getRecipient()), d -> new ArrayList<>())
+                            .add(email);
+                }
+            }
+            List<CompletableFuture<Void>> sends = new ArrayList<>(byDomain.size());
+            for (List<EmailOutbox> batch : byDomain.values()) {
+                sends.add(CompletableFuture.runAsync(() -> send(batch), workers));
+            }
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        } catch (RuntimeException e) {
+            log.warn("Email outbox poll failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.mail.outbox.purge-interval}")
+    public void purge() {
+        if (enabled) {
+            emailOutboxRepository.deleteSentBefore(Instant.now().minus(retention));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    private void send(List<EmailOutbox> batch) {
+        Map<EmailDetails, EmailOutbox> rows = new IdentityHashMap<>(batch.size());
+        List<EmailDetails> emails = new ArrayList<>(batch.size());
+        for (EmailOutbox email : batch) {
+            EmailDetails details = email.toEmailDetails();
+            rows.put(details, email);
+            emails.add(details);
+        }
+        emailService.sendMails(emails, new EmailService.BatchListener() {
+            @Override
+            public void sent(EmailDetails emailDetails) {
+                EmailOutbox email = rows.get(emailDetails);
+                if (emailOutboxRepository.markSent(email.getId(), email.getAttempts(), Instant.now()) == 0) {
+                    log.warn("Outbox email {} was sent after its lease ran out", email.getId());
+                }
+            }
+
+            @Override
+            public void failed(EmailDetails emailDetails, Exception error) {
+                EmailOutboxDispatcher.this.failed(rows.get(emailDetails), error);
+            }
+        });
+    }
+
+    private void failed(EmailOutbox email, Exception error) {
+        // claim() has already counted this attempt
+        int attempts = email.getAttempts();
+        boolean exhausted = attempts >= maxAttempts;
+        Instant next = Instant.now().plus(backoff(attempts));
+        if (emailOutboxRepository.markFailed(email.getId(), attempts,
+                exhausted ? EmailOutboxStatus.FAILED : EmailOutboxStatus.PENDING, next, truncate(error.toString())) == 0) {
+            log.warn("Outbox email {} to {} failed after its lease ran out", email.getId(), email.getRecipient(), error);
+        } else if (exhausted) {
+            log.error("Giving up on outbox email {} to {} after {} attempts", email.getId(), email.getRecipient(), attempts, error);
+        } else {
+            log.warn("Outbox email {} to {} failed, attempt {} of {}", email.getId(), email.getRecipient(), attempts, maxAttempts, error);
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = baseBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,55 @@
+package com.application.config.mail;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    @Query("select e from EmailOutbox e where e.status = com.application.config.mail.EmailOutboxStatus.PENDING " +
+            "and e.nextAttemptAt <= :now order by e.nextAttemptAt")
+    List<EmailOutbox> findDue(Instant now, Pageable pageable);
+
+    /**
+     * Leases a due row to the caller by pushing its next attempt past {@code leaseUntil}. Returns
+     * 0 when another worker got there first.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox e set e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1 " +
+            "where e.id = :id and e.status = com.application.config.mail.EmailOutboxStatus.PENDING " +
+            "and e.nextAttemptAt = :seen")
+    int claim(Long id, Instant seen, Instant leaseUntil);
+
+    /**
+     * Records the outcome of a claimed send. {@code attempts} is the count the caller's claim left
+     * on the row; once the lease ran out and another worker claimed or finished the row, the update
+     * matches nothing and returns 0, so a late outcome cannot overwrite a newer one.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox e set e.status = com.application.config.mail.EmailOutboxStatus.SENT, " +
+            "e.sentAt = :sentAt, e.lastError = null where e.id = :id " +
+            "and e.status = com.application.config.mail.EmailOutboxStatus.PENDING and e.attempts = :attempts")
+    int markSent(Long id, int attempts, Instant sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox e set e.status = :status, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :error where e.id = :id " +
+            "and e.status = com.application.config.mail.EmailOutboxStatus.PENDING and e.attempts = :attempts")
+    int markFailed(Long id, int attempts, EmailOutboxStatus status, Instant nextAttemptAt, String error);
+
+    @Transactional
+    @Modifying
+    @Query("delete from EmailOutbox e where e.status = com.application.config.mail.EmailOutboxStatus.SENT " +
+            "and e.sentAt < :before")
+    int deleteSentBefore(Instant before);
+}
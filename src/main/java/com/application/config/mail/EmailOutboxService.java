@@ -0,0 +1,30 @@
+package com.application.config.mail;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    /**
+     * Queues the email in the caller's transaction, so it is only sent if that transaction
+     * commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(EmailDetails emailDetails) {
+        emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(emailDetails.getRecipient())
+                .subject(emailDetails.getSubject())
+                .body(emailDetails.getMsgBody())
+                .status(EmailOutboxStatus.PENDING)
+                .nextAttemptAt(Instant.now())
+                .build());
+    }
+}
@@ -0,0 +1,7 @@
+package com.application.config.mail;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -2,10 +2,23 @@ package com.application.config.mail;
 
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public interface EmailService {
 
     void sendMail(EmailDetails emailDetails);
     void sendMailWithAttachments(EmailDetails emailDetails);
 
+    /**
+     * Sends the emails in batches over pooled connections, reporting the outcome of each one.
+     */
+    void sendMails(List<EmailDetails> emails, BatchListener listener);
+
+    interface BatchListener {
+
+        void sent(EmailDetails emailDetails);
+
+        void failed(EmailDetails emailDetails, Exception error);
+    }
 }
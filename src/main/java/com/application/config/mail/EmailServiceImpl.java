@@ -1,45 +1,151 @@
 package com.application.config.mail;
 
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.application.aws.service.S3FileService;
+import jakarta.activation.DataHandler;
 import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeBodyPart;
 import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
 @Component
 @Slf4j
 public class EmailServiceImpl implements EmailService {
 
     @Autowired
-    private JavaMailSender javaMailSender;
+    private MailTransport mailTransport;
+
+    @Autowired
+    private S3FileService s3FileService;
 
     @Value("${custom.email}")
     private String sender;
 
-    @Override
+    @Value("${application.mail.attachments.max-bytes}")
+    private long maxAttachmentBytes;
 
+    @Value("${application.mail.attachments.max-total-bytes}")
+    private long maxTotalAttachmentBytes;
+
+    @Override
     public void sendMail(EmailDetails details) {
+        send(details, createMessage(details, false));
+    }
+
+    @Override
+    public void sendMailWithAttachments(EmailDetails emailDetails) {
+        send(emailDetails, createMessage(emailDetails, true));
+    }
+
+    private void send(EmailDetails details, MimeMessage message) {
+        Exception[] failure = new Exception[1];
+        mailTransport.send(domainOf(details.getRecipient()), List.of(message), new MailTransport.Listener() {
+            @Override
+            public void sent(int index) {
+            }
+
+            @Override
+            public void failed(int index, Exception error) {
+                failure[0] = error;
+            }
+        });
+        if (failure[0] != null) {
+            throw new MailSendException("Sending email to " + details.getRecipient() + " failed", failure[0]);
+        }
+        log.info("Successfully sent HTML email to {} with subject: {}", details.getRecipient(), details.getSubject());
+    }
+
+    @Override
+    public void sendMails(List<EmailDetails> emails, BatchListener listener) {
+        Map<String, List<EmailDetails>> byDomain = new LinkedHashMap<>();
+        Map<String, List<MimeMessage>> messagesByDomain = new LinkedHashMap<>();
+        for (EmailDetails email : emails) {
+            MimeMessage message;
+            try {
+                message = createMessage(email, false);
+            } catch (RuntimeException e) {
+                listener.failed(email, e);
+                continue;
+            }
+            String domain = domainOf(email.getRecipient());
+            byDomain.computeIfAbsent(domain, d -> new ArrayList<>()).add(email);
+            messagesByDomain.computeIfAbsent(domain, d -> new ArrayList<>()).add(message);
+        }
+
+        byDomain.forEach((domain, batch) ->
+                mailTransport.send(domain, messagesByDomain.get(domain), new MailTransport.Listener() {
+                    @Override
+                    public void sent(int index) {
+                        listener.sent(batch.get(index));
+                    }
+
+                    @Override
+                    public void failed(int index, Exception error) {
+                        listener.failed(batch.get(index), error);
+                    }
+                }));
+    }
+
+    private MimeMessage createMessage(EmailDetails details, boolean withAttachments) {
         try {
-            MimeMessage message = javaMailSender.createMimeMessage();
+            MimeMessage message = mailTransport.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
             helper.setFrom(sender);
             helper.setTo(details.getRecipient());
             helper.setSubject(details.getSubject());
             helper.setText(details.getMsgBody(), true);
-
-            javaMailSender.send(message);
-            log.info("Successfully sent HTML email to {} with subject: {}", details.getRecipient(), details.getSubject());
+            if (withAttachments && details.getAttachments() != null) {
+                attach(helper.getRootMimeMultipart(), details.getAttachments());
+            }
+            message.saveChanges();
+            return message;
         } catch (MessagingException e) {
-            log.error("HTML Email sending failed!", e);
+            throw new MailPreparationException("Could not build email to " + details.getRecipient(), e);
         }
     }
 
-    @Override
-    public void sendMailWithAttachments(EmailDetails emailDetails) {
+    /**
+     * Adds the S3 objects as attachments. Sizes are checked against the caps from the object
+     * metadata up front; the content itself is only read while the message is being sent.
+     */
+    private void attach(MimeMultipart multipart, List<String> keys) throws MessagingException {
+        long total = 0;
+        for (String key : keys) {
+            ObjectMetadata metadata = s3FileService.getFileMetadata(key);
+            long size = metadata.getContentLength();
+            total += size;
+            if (size > maxAttachmentBytes || total > maxTotalAttachmentBytes) {
+                throw new MailPreparationException("Attachment " + key + " exceeds the size limit");
+            }
+            S3AttachmentSource source = new S3AttachmentSource(s3FileService, key, metadata.getContentType(),
+                    maxAttachmentBytes);
+            MimeBodyPart part = new MimeBodyPart();
+            part.setDataHandler(new DataHandler(source));
+            part.setFileName(source.getName());
+            part.setDisposition(Part.ATTACHMENT);
+            // Without an explicit encoding JavaMail reads the whole content to choose one
+            part.setHeader("Content-Transfer-Encoding", "base64");
+            multipart.addBodyPart(part);
+        }
+    }
 
+    static String domainOf(String recipient) {
+        int at = recipient.lastIndexOf('@');
+        return (at < 0 ? recipient : recipient.substring(at + 1)).toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,94 @@
+package com.application.config.mail;
+
+import org.springframework.context.MessageSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders {@link EmailTemplate}s for a locale. Bodies are resolved like resource bundles,
+ * {@code name_fr_CA.html}, then {@code name_fr.html}, then {@code name.html}, compiled once and
+ * kept per template and locale; subjects come from the application {@link MessageSource}.
+ * <p>
+ * The locale comes from the request, so only the first {@code MAX_RESOLVED_LOCALES} template and
+ * locale pairs are remembered; later ones are resolved on each render and still share the compiled
+ * template of the file they fall back to.
+ */
+@Component
+public class EmailTemplateEngine {
+
+    private static final String LOCATION = "templates/email/";
+    private static final int MAX_RESOLVED_LOCALES = 256;
+
+    private final MessageSource messageSource;
+    private final ConcurrentHashMap<Key, CompiledTemplate> templates = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompiledTemplate> byPath = new ConcurrentHashMap<>();
+
+    public EmailTemplateEngine(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    public record RenderedEmail(String subject, String body) {
+    }
+
+    public RenderedEmail render(EmailTemplate template, Locale locale, Map<String, ?> model) {
+        Locale resolved = locale == null ? Locale.ROOT : locale;
+        CompiledTemplate body = resolve(new Key(template, resolved));
+        String subject = messageSource.getMessage(template.getSubjectKey(), null, resolved);
+        return new RenderedEmail(subject, body.render(model));
+    }
+
+    private CompiledTemplate resolve(Key key) {
+        CompiledTemplate body = templates.get(key);
+        if (body != null) {
+            return body;
+        }
+        body = load(key);
+        if (templates.size() < MAX_RESOLVED_LOCALES) {
+            templates.put(key, body);
+        }
+        return body;
+    }
+
+    private CompiledTemplate load(Key key) {
+        String base = LOCATION + key.template().getFile();
+        Locale locale = key.locale();
+        List<String> candidates = new ArrayList<>(3);
+        if (!locale.getLanguage().isEmpty()) {
+            if (!locale.getCountry().isEmpty()) {
+                candidates.add(base + "_" + locale.getLanguage() + "_" + locale.getCountry() + ".html");
+            }
+            candidates.add(base + "_" + locale.getLanguage() + ".html");
+        }
+        candidates.add(base + ".html");
+
+        for (String candidate : candidates) {
+            ClassPathResource resource = new ClassPathResource(candidate);
+            if (resource.exists()) {
+                // Locales that fall back to the same file share one compiled instance
+                return byPath.computeIfAbsent(candidate, path -> compile(resource));
+            }
+        }
+        throw new IllegalStateException("No template " + base + ".html");
+    }
+
+    private static CompiledTemplate compile(ClassPathResource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return CompiledTemplate.compile(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + resource.getPath(), e);
+        }
+    }
+
+    private record Key(EmailTemplate template, Locale locale) {
+    }
+}
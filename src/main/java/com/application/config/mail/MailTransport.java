@@ -0,0 +1,171 @@
+package com.application.config.mail;
+
+import com.application.config.aop.TraceContext;
+import com.application.config.jfr.EmailSendEvent;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends batches of messages for one recipient domain over pooled SMTP connections. At most
+ * {@code default-domain-concurrency} batches, or the domain's entry in {@code domain-limits},
+ * are in flight per domain at a time, which keeps bulk sends under provider rate limits.
+ */
+@Component
+public class MailTransport {
+
+    public interface Listener {
+
+        void sent(int index);
+
+        void failed(int index, Exception error);
+    }
+
+    private final SmtpConnectionPool connectionPool;
+    private final int defaultDomainConcurrency;
+    private final Map<String, Integer> domainLimits;
+    private final ConcurrentHashMap<String, Domain> domains = new ConcurrentHashMap<>();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong sendTimeNanos = new AtomicLong();
+
+    public MailTransport(SmtpConnectionPool connectionPool,
+                         @Value("${application.mail.transport.default-domain-concurrency}") int defaultDomainConcurrency,
+                         @Value("#{${application.mail.transport.domain-limits}}") Map<String, Integer> domainLimits) {
+        this.connectionPool = connectionPool;
+        this.defaultDomainConcurrency = defaultDomainConcurrency;
+        this.domainLimits = domainLimits;
+    }
+
+    public MimeMessage createMimeMessage() {
+        return connectionPool.createMimeMessage();
+    }
+
+    /**
+     * Sends {@code messages}, all addressed to {@code domain}, reporting each outcome by index.
+     * A message that fails because the connection dropped is retried once on a new connection;
+     * a message the server rejects is reported and the batch carries on.
+     */
+    public void send(String domain, List<MimeMessage> messages, Listener listener) {
+        Domain limit = domains.computeIfAbsent(domain,
+                d -> new Domain(domainLimits.getOrDefault(d, defaultDomainConcurrency)));
+        EmailSendEvent event = new EmailSendEvent();
+        event.begin();
+        // The span includes waiting for the domain's permit, the send time stat does not
+        long spanStart = System.nanoTime();
+        limit.permits.acquireUninterruptibly();
+        batches.incrementAndGet();
+        long start = System.nanoTime();
+        int failures = 0;
+        try {
+            int index = 0;
+            boolean retried = false;
+            while (index < messages.size()) {
+                SmtpConnectionPool.Connection connection;
+                try {
+                    connection = connectionPool.borrow();
+                } catch (MessagingException e) {
+                    for (; index < messages.size(); index++) {
+                        failed(limit, listener, index, e);
+                        failures++;
+                    }
+                    return;
+                }
+
+                boolean broken = false;
+                try {
+                    while (index < messages.size() && connection.sent < connectionPool.maxMessagesPerConnection()) {
+                        MimeMessage message = messages.get(index);
+                        try {
+                            connection.transport.sendMessage(message, message.getAllRecipients());
+                            connection.sent++;
+                            sent.incrementAndGet();
+                            limit.sent.incrementAndGet();
+                            listener.sent(index);
+                        } catch (MessagingException e) {
+                            if (!connection.transport.isConnected()) {
+                                broken = true;
+                                if (!retried) {
+                                    retried = true;
+                                    break;
+                                }
+                            }
+                            failed(limit, listener, index, e);
+                            failures++;
+                        }
+                        index++;
+                        retried = false;
+                        if (broken) {
+                            break;
+                        }
+                    }
+                } finally {
+                    connectionPool.release(connection, broken);
+                }
+            }
+        } finally {
+            sendTimeNanos.addAndGet(System.nanoTime() - start);
+            limit.permits.release();
+            if (TraceContext.isRecording()) {
+                TraceContext.recordSpan("smtp", "send " + messages.size() + " to " + domain, spanStart,
+                        failures > 0);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.domain = domain;
+                event.messages = messages.size();
+                event.failed = failures;
+                event.commit();
+            }
+        }
+    }
+
+    public MailTransportStats stats() {
+        Map<String, MailTransportStats.DomainStats> perDomain = new TreeMap<>();
+        domains.forEach((name, domain) -> perDomain.put(name, MailTransportStats.DomainStats.builder()
+                .limit(domain.limit)
+                .inFlight(domain.limit - domain.permits.availablePermits())
+                .sent(domain.sent.get())
+                .failed(domain.failed.get())
+                .build()));
+        return MailTransportStats.builder()
+                .sent(sent.get())
+                .failed(failed.get())
+                .batches(batches.get())
+                .sendTimeMillis(sendTimeNanos.get() / 1_000_000)
+                .connectionsOpened(connectionPool.openedConnections())
+                .connectionsClosed(connectionPool.closedConnections())
+                .idleConnections(connectionPool.idleConnections())
+                .domains(perDomain)
+                .build();
+    }
+
+    private void failed(Domain domain, Listener listener, int index, Exception error) {
+        failed.incrementAndGet();
+        domain.failed.incrementAndGet();
+        listener.failed(index, error);
+    }
+
+    private static final class Domain {
+
+        final int limit;
+        final Semaphore permits;
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+
+        Domain(int limit) {
+            this.limit = limit;
+            this.permits = new Semaphore(limit);
+        }
+    }
+}
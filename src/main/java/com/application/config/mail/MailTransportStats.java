@@ -0,0 +1,36 @@
+package com.application.config.mail;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailTransportStats {
+
+    private long sent;
+    private long failed;
+    private long batches;
+    private long sendTimeMillis;
+    private long connectionsOpened;
+    private long connectionsClosed;
+    private int idleConnections;
+    private Map<String, DomainStats> domains;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DomainStats {
+
+        private int limit;
+        private int inFlight;
+        private long sent;
+        private long failed;
+    }
+}
@@ -0,0 +1,88 @@
+package com.application.config.mail;
+
+import com.application.aws.service.S3FileService;
+import jakarta.activation.DataSource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Attachment content read from S3 only while the message is written to the SMTP connection, so
+ * the object streams through a small copy buffer instead of being held in the heap. Every call
+ * to {@link #getInputStream()} opens a new download, which lets a send be retried; reading more
+ * than {@code maxBytes} fails the send.
+ */
+final class S3AttachmentSource implements DataSource {
+
+    private final S3FileService s3FileService;
+    private final String key;
+    private final String contentType;
+    private final long maxBytes;
+
+    S3AttachmentSource(S3FileService s3FileService, String key, String contentType, long maxBytes) {
+        this.s3FileService = s3FileService;
+        this.key = key;
+        this.contentType = contentType == null ? "application/octet-stream" : contentType;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new LimitedInputStream(s3FileService.getFile(key).getObjectContent(), maxBytes, key);
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        throw new IOException("S3 attachments are read-only");
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getName() {
+        return key.substring(key.lastIndexOf('/') + 1);
+    }
+
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private final String key;
+        private long read;
+
+        LimitedInputStream(InputStream in, long maxBytes, String key) {
+            super(in);
+            this.maxBytes = maxBytes;
+            this.key = key;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            read += n;
+            if (read > maxBytes) {
+                throw new IOException("Attachment " + key + " exceeds " + maxBytes + " bytes");
+            }
+        }
+    }
+}
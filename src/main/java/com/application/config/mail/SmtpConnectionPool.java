@@ -0,0 +1,194 @@
+package com.application.config.mail;
+
+import com.application.config.aop.TraceContext;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps up to {@code max-connections} connected and authenticated SMTP transports, so a message
+ * costs one {@code MAIL FROM}/{@code RCPT TO}/{@code DATA} exchange instead of a fresh TCP, TLS
+ * and {@code AUTH} handshake. Connections are retired after {@code max-messages-per-connection}
+ * messages, after {@code max-idle-seconds} without use, or as soon as a send breaks them.
+ * <p>
+ * Server settings come from {@code spring.mail}, so pointing {@code spring.mail.host} and
+ * {@code spring.mail.port} at a local SMTP stand-in is enough to exercise the pool.
+ */
+@Slf4j
+@Component
+public class SmtpConnectionPool {
+
+    private final Session session;
+    private final String protocol;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final int maxMessagesPerConnection;
+    private final long maxIdleMillis;
+    private final long borrowTimeoutMillis;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+
+    public SmtpConnectionPool(MailProperties mailProperties,
+                              @Value("${application.mail.transport.max-connections}") int maxConnections,
+                              @Value("${application.mail.transport.max-messages-per-connection}") int maxMessagesPerConnection,
+                              @Value("${application.mail.transport.max-idle-seconds}") long maxIdleSeconds,
+                              @Value("${application.mail.transport.borrow-timeout-millis}") long borrowTimeoutMillis) {
+        Properties properties = new Properties();
+        properties.putAll(mailProperties.getProperties());
+        // Without timeouts a dead server would pin a pooled connection, and its permit, forever
+        properties.putIfAbsent("mail.smtp.connectiontimeout", "10000");
+        properties.putIfAbsent("mail.smtp.timeout", "30000");
+        properties.putIfAbsent("mail.smtp.writetimeout", "30000");
+        this.session = Session.getInstance(properties);
+        this.protocol = mailProperties.getProtocol();
+        this.host = mailProperties.getHost();
+        this.port = mailProperties.getPort() == null ? -1 : mailProperties.getPort();
+        this.username = mailProperties.getUsername();
+        this.password = mailProperties.getPassword();
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleMillis = TimeUnit.SECONDS.toMillis(maxIdleSeconds);
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxConnections);
+    }
+
+    public MimeMessage createMimeMessage() {
+        return new MimeMessage(session);
+    }
+
+    /**
+     * Hands out a connected transport, reusing the most recently returned one when it is still
+     * fresh. Every borrowed connection must be given back through {@link #release}.
+     */
+    Connection borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("No SMTP connection available within " + borrowTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection", e);
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            Connection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (now - connection.lastUsedAt <= maxIdleMillis) {
+                    return connection;
+                }
+                close(connection);
+            }
+            return open();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    void release(Connection connection, boolean broken) {
+        try {
+            if (broken || connection.sent >= maxMessagesPerConnection) {
+                close(connection);
+            } else {
+                connection.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    int maxMessagesPerConnection() {
+        return maxMessagesPerConnection;
+    }
+
+    long openedConnections() {
+        return opened.get();
+    }
+
+    long closedConnections() {
+        return closed.get();
+    }
+
+    int idleConnections() {
+        return idle.size();
+    }
+
+    /**
+     * Closes connections the server would likely have dropped by now anyway.
+     */
+    @Scheduled(fixedDelayString = "${application.mail.transport.evict-interval}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<Connection> connections = idle.iterator();
+        while (connections.hasNext()) {
+            Connection connection = connections.next();
+            if (now - connection.lastUsedAt > maxIdleMillis && idle.removeFirstOccurrence(connection)) {
+                close(connection);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    private Connection open() throws MessagingException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Transport transport = session.getTransport(protocol);
+            transport.connect(host, port, username, password);
+            opened.incrementAndGet();
+            failed = false;
+            return new Connection(transport);
+        } finally {
+            if (TraceContext.isRecording()) {
+                TraceContext.recordSpan("smtp", "connect " + host, start, failed);
+            }
+        }
+    }
+
+    private void close(Connection connection) {
+        closed.incrementAndGet();
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed", e);
+        }
+    }
+
+    static final class Connection {
+
+        final Transport transport;
+        int sent;
+        long lastUsedAt = System.currentTimeMillis();
+
+        private Connection(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.application.config.password;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose cost is picked at startup from a target verification latency. Every
+ * BCrypt hash carries its own cost, so hashes made with another cost keep verifying;
+ * {@link #upgradeEncoding(String)} reports those below the current cost so they can be
+ * re-hashed on the next successful login. Hashes above it are left alone: nodes calibrate
+ * separately and may settle one step apart, and downgrading would make them rewrite each
+ * other's hashes on every login.
+ */
+@Slf4j
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private final int cost;
+    private final BCryptPasswordEncoder delegate;
+
+    public CalibratedPasswordEncoder(int cost) {
+        this.cost = cost;
+        this.delegate = new BCryptPasswordEncoder(cost);
+    }
+
+    /**
+     * Times BCrypt from {@code minCost} upwards and keeps the highest cost whose hash still
+     * completes within {@code targetMillis}. Each step doubles the work, so at most one sample
+     * per cost is taken.
+     */
+    public static CalibratedPasswordEncoder calibrate(long targetMillis, int minCost, int maxCost) {
+        // Warm up the JIT so the first measured sample is representative
+        new BCryptPasswordEncoder(minCost).encode(SAMPLE_PASSWORD);
+
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(cost).encode(SAMPLE_PASSWORD);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosen = cost;
+        }
+        log.info("Password hashing calibrated to BCrypt cost {} for a {} ms target", chosen, targetMillis);
+        return new CalibratedPasswordEncoder(chosen);
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < cost;
+    }
+}
@@ -0,0 +1,96 @@
+package com.application.config.password;
+
+import com.application.common.exceptions.ApplicationError;
+import com.application.common.exceptions.RetryLaterException;
+import com.application.config.aop.TraceContext;
+import com.application.config.jfr.PasswordCheckEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hash checks on a dedicated pool sized to the CPU count, keeping the CPU-bound
+ * hashing off the request threads. When the pool's queue is full new checks fail at once with a
+ * {@link RetryLaterException} carrying a retry hint instead of piling up.
+ */
+@Component
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int retryAfterSeconds;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            @Value("${application.security.password.threads}") int threads,
+                            @Value("${application.security.password.queue-capacity}") int queueCapacity,
+                            @Value("${application.security.password.retry-after-seconds}") int retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.passwordEncoder = passwordEncoder;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verifier-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Result of a check. {@code upgradedHash} is set when the password matched but the stored
+     * hash was made with other parameters than the current encoder's; the caller should store it.
+     */
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+
+    public CompletableFuture<Verification> verify(String rawPassword, String encodedPassword) {
+        try {
+            // The wrapped runnable also completes the future, so dependent stages keep the trace
+            return CompletableFuture.supplyAsync(() -> check(rawPassword, encodedPassword),
+                    task -> executor.execute(TraceContext.wrap(task)));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new RetryLaterException(
+                    ApplicationError.LOGIN_BUSY, HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds));
+        }
+    }
+
+    private Verification check(String rawPassword, String encodedPassword) {
+        PasswordCheckEvent event = new PasswordCheckEvent();
+        event.begin();
+        Verification verification = match(rawPassword, encodedPassword);
+        event.end();
+        if (event.shouldCommit()) {
+            event.matches = verification.matches();
+            event.rehashed = verification.upgradedHash() != null;
+            event.hashLength = encodedPassword == null ? 0 : encodedPassword.length();
+            event.commit();
+        }
+        return verification;
+    }
+
+    private Verification match(String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+            return new Verification(false, null);
+        }
+        String upgradedHash = passwordEncoder.upgradeEncoding(encodedPassword)
+                ? passwordEncoder.encode(rawPassword)
+                : null;
+        return new Verification(true, upgradedHash);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,11 +1,26 @@
 package com.application.user;
 
+import com.application.common.response.Response;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @AllArgsConstructor
 @RequestMapping("/user")
@@ -19,4 +34,43 @@ public class UserController {
         return "Hi user, protected controller!";
     }
 
+    @GetMapping(path = "/sessions")
+    @Operation(summary = "Active sessions", description = "List the signed-in user's active sessions, oldest first.")
+    public ResponseEntity<Response> sessions(@RequestHeader(required = false) Locale locale) {
+        return new ResponseEntity<>(userService.getSessions(locale), HttpStatus.OK);
+    }
+
+    @PutMapping(path = "/files/{fileName}", consumes = MediaType.ALL_VALUE)
+    @Operation(summary = "Upload file", description = "Stream the request body into the signed-in user's folder. Large files go to S3 as parallel multipart uploads and are never buffered whole. Bodies over the configured maximum size are refused with 413; content types outside the allowed list are stored as application/octet-stream.")
+    public ResponseEntity<Response> uploadFile(@PathVariable String fileName,
+                                               @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                               @RequestHeader(required = false) Locale locale,
+                                               HttpServletRequest request) throws IOException {
+        return new ResponseEntity<>(userService.uploadFile(fileName, contentType, request.getContentLengthLong(),
+                request.getInputStream(), locale), HttpStatus.CREATED);
+    }
+
+    @GetMapping(path = "/files")
+    @Operation(summary = "List files", description = "List the files in the signed-in user's folder.")
+    public CompletableFuture<ResponseEntity<Response>> listFiles(@RequestHeader(required = false) Locale locale) {
+        return userService.listFiles(locale)
+                .thenApply(response -> new ResponseEntity<>(response, HttpStatus.OK));
+    }
+
+    @GetMapping(path = "/files/{fileName}/url")
+    @Operation(summary = "File download URL", description = "Get a short-lived pre-signed download URL for one of the signed-in user's files.")
+    public CompletableFuture<ResponseEntity<Response>> fileUrl(@PathVariable String fileName,
+                                                               @RequestHeader(required = false) Locale locale) {
+        return userService.getFileUrl(fileName, locale)
+                .thenApply(response -> new ResponseEntity<>(response, HttpStatus.OK));
+    }
+
+    @DeleteMapping(path = "/files/{fileName}")
+    @Operation(summary = "Delete file", description = "Delete one of the signed-in user's files.")
+    public CompletableFuture<ResponseEntity<Response>> deleteFile(@PathVariable String fileName,
+                                                                  @RequestHeader(required = false) Locale locale) {
+        return userService.deleteFile(fileName, locale)
+                .thenApply(response -> new ResponseEntity<>(response, HttpStatus.OK));
+    }
+
 }
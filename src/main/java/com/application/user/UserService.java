@@ -1,5 +1,22 @@
 package com.application.user;
 
+import com.application.common.response.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
 public interface UserService {
 
-}
\ No newline at end of file
+    Response getSessions(Locale locale);
+
+    Response uploadFile(String fileName, String contentType, long contentLength, InputStream body, Locale locale)
+            throws IOException;
+
+    CompletableFuture<Response> listFiles(Locale locale);
+
+    CompletableFuture<Response> getFileUrl(String fileName, Locale locale);
+
+    CompletableFuture<Response> deleteFile(String fileName, Locale locale);
+}
@@ -1,15 +1,94 @@
 package com.application.user;
 
+import com.application.aws.dto.FileResponseDto;
+import com.application.aws.service.S3AsyncFileService;
+import com.application.aws.service.S3FileService;
+import com.application.aws.service.S3MultipartUploader;
 import com.application.baseuser.BaseUserRepository;
+import com.application.common.response.Response;
+import com.application.common.response.ResponseCatalog;
+import com.application.common.response.ResponseCode;
 import com.application.config.jwt.JwtService;
+import com.application.config.jwt.JwtUtils;
+import com.application.user.response.SessionResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import static com.application.common.response.ResponseCode.FILES_FETCHED;
+import static com.application.common.response.ResponseCode.FILE_DELETED;
+import static com.application.common.response.ResponseCode.FILE_NOT_FOUND;
+import static com.application.common.response.ResponseCode.FILE_UPLOADED;
+import static com.application.common.response.ResponseCode.SESSIONS_FETCHED;
+import static com.application.common.response.ResponseCode.URL_FETCHED_SUCCESSFULLY;
+
 @Service
 @AllArgsConstructor
 public class UserServiceImpl implements UserService {
+
+    private static final int FILE_URL_EXPIRATION_MINUTES = 15;
+
     private final JwtService jwtService;
     private final BaseUserRepository baseUserRepository;
+    private final JwtUtils jwtUtils;
+    private final ResponseCatalog responseCatalog;
+    private final S3FileService s3FileService;
+    private final S3AsyncFileService s3AsyncFileService;
+
+    @Override
+    public Response getSessions(Locale locale) {
+        List<SessionResponse> sessions = jwtService.sessions(jwtUtils.getCurrentUserUuid()).stream()
+                .map(session -> SessionResponse.builder()
+                        .id(session.id())
+                        .issuedAt(session.issuedAt())
+                        .expiresAt(session.issuedAt().plusMillis(jwtService.getRefreshExpiration()))
+                        .build())
+                .toList();
+        return buildResponseWithData(sessions, SESSIONS_FETCHED, locale);
+    }
+
+    @Override
+    public Response uploadFile(String fileName, String contentType, long contentLength, InputStream body,
+                               Locale locale) throws IOException {
+        S3MultipartUploader.Result result = s3FileService.uploadStreamWithPath(userFolder(), fileName, contentType,
+                contentLength, body);
+        FileResponseDto file = new FileResponseDto(fileName, result.key(), result.contentType(), result.size());
+        return buildResponseWithData(file, FILE_UPLOADED, locale);
+    }
+
+    @Override
+    public CompletableFuture<Response> listFiles(Locale locale) {
+        return s3AsyncFileService.listFilesInPath(userFolder())
+                .thenApply(files -> buildResponseWithData(files, FILES_FETCHED, locale));
+    }
+
+    @Override
+    public CompletableFuture<Response> getFileUrl(String fileName, Locale locale) {
+        // Resolved on the request thread, the security context is not carried to the S3 pool
+        String key = userFolder() + fileName;
+        return s3AsyncFileService.fileExists(key)
+                .thenCompose(exists -> exists
+                        ? s3AsyncFileService.generatePreSignedUrl(key, FILE_URL_EXPIRATION_MINUTES)
+                        .thenApply(url -> buildResponseWithData(url, URL_FETCHED_SUCCESSFULLY, locale))
+                        : CompletableFuture.completedFuture(responseCatalog.get(FILE_NOT_FOUND, locale)));
+    }
+
+    @Override
+    public CompletableFuture<Response> deleteFile(String fileName, Locale locale) {
+        return s3AsyncFileService.deleteFile(userFolder() + fileName)
+                .thenApply(deleted -> responseCatalog.get(deleted ? FILE_DELETED : FILE_NOT_FOUND, locale));
+    }
 
+    private String userFolder() {
+        return jwtUtils.getCurrentUserUuid() + "/";
+    }
 
-}
\ No newline at end of file
+    private <T> Response buildResponseWithData(T data, ResponseCode code, Locale locale) {
+        return responseCatalog.withData(data, code, locale);
+    }
+}
@@ -0,0 +1,20 @@
+package com.application.user.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionResponse {
+
+    private String id;
+    private Instant issuedAt;
+    private Instant expiresAt;
+
+}
@@ -0,0 +1,8 @@
+-- KEYS: email lock, ip lock
+-- Returns the remaining lock time in ms of each key, 0 when it is not locked.
+local remaining = {}
+for i, key in ipairs(KEYS) do
+    local ttl = redis.call('PTTL', key)
+    remaining[i] = ttl > 0 and ttl or 0
+end
+return remaining
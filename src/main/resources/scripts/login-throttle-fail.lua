@@ -0,0 +1,29 @@
+-- Records a failed login against the email and the client IP using a sliding window built from
+-- two fixed-window counters, and locks a scope once its estimated failure count in the window
+-- reaches its limit. Each failure past the limit doubles the lock time, up to the maximum.
+-- KEYS: email current window, email previous window, email lock,
+--       ip current window, ip previous window, ip lock
+-- ARGV: window ms, ms elapsed in the current window, email limit, ip limit,
+--       base lock ms, max lock ms
+-- Returns the lock set on the email and on the ip in ms, 0 for a scope that is not locked.
+local window = tonumber(ARGV[1])
+local elapsed = tonumber(ARGV[2])
+local baseLock = tonumber(ARGV[5])
+local maxLock = tonumber(ARGV[6])
+
+local function fail(current, previous, lock, limit)
+    local count = redis.call('INCR', current)
+    redis.call('PEXPIRE', current, window * 2)
+    local before = tonumber(redis.call('GET', previous) or '0')
+    local estimate = math.floor(before * (window - elapsed) / window) + count
+    if estimate < limit then
+        return 0
+    end
+    local duration = math.min(maxLock, baseLock * 2 ^ (estimate - limit))
+    redis.call('SET', lock, '1', 'PX', duration)
+    return duration
+end
+
+local emailLock = fail(KEYS[1], KEYS[2], KEYS[3], tonumber(ARGV[3]))
+local ipLock = fail(KEYS[4], KEYS[5], KEYS[6], tonumber(ARGV[4]))
+return {emailLock, ipLock}
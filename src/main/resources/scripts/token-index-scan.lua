@@ -0,0 +1,5 @@
+-- A single SCAN call for TokenIndexSweeper. Cursor iteration on the client side keeps issuing
+-- SCAN until a key matches, which can walk the whole keyspace in one step once few keys do.
+-- ARGV: cursor, match pattern, count
+-- Returns {next cursor, matching keys}
+return redis.call('SCAN', ARGV[1], 'MATCH', ARGV[2], 'COUNT', ARGV[3])
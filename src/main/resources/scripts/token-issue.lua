@@ -0,0 +1,10 @@
+-- Stores an access/refresh pair and records it in the owner's session index in one round trip.
+-- When the owner is over the session cap, the oldest sessions are deleted in the same script.
+-- KEYS: access key, refresh key, session index
+-- ARGV: record, access ttl, refresh ttl, session member, now (ms), max sessions,
+--       access key prefix, refresh key prefix
+-- Returns {'1', access digests of evicted sessions...}
+-- add_session is defined in token-session.lua, loaded ahead of this file.
+redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2])
+redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[3])
+return add_session(KEYS[3], ARGV[4], ARGV[5], ARGV[3], ARGV[6], ARGV[7], ARGV[8])
@@ -0,0 +1,24 @@
+-- Ends one session: revokes the presented access token and the refresh token issued with it,
+-- and drops the pair from the owner's session index. Other sessions of the user are untouched.
+-- KEYS: access key, legacy access hash, session index
+-- ARGV: access digest, refresh key prefix
+-- Returns 1 when the access token was stored and is now revoked, else 0.
+local revoked = 0
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    redis.call('SETRANGE', KEYS[1], 1, '\1')
+    revoked = 1
+elseif redis.call('EXISTS', KEYS[2]) == 1 then
+    redis.call('HSET', KEYS[2], 'revoked', '1')
+    revoked = 1
+end
+
+for _, session in ipairs(redis.call('ZRANGE', KEYS[3], 0, -1)) do
+    if string.sub(session, 23) == ARGV[1] then
+        local refreshKey = ARGV[2] .. string.sub(session, 1, 22)
+        if redis.call('EXISTS', refreshKey) == 1 then
+            redis.call('SETRANGE', refreshKey, 1, '\1')
+        end
+        redis.call('ZREM', KEYS[3], session)
+    end
+end
+return revoked
@@ -0,0 +1,19 @@
+-- KEYS: token key, legacy token hash
+-- Returns 0 when the token is not stored, 1 when active, 2 when revoked.
+local record = redis.call('GET', KEYS[1])
+if record then
+    if bit.band(string.byte(record, 2), 1) == 1 then
+        return 2
+    end
+    return 1
+end
+
+-- Legacy @RedisHash record that has not been migrated yet
+local revoked = redis.call('HGET', KEYS[2], 'revoked')
+if not revoked then
+    return 0
+end
+if revoked == '1' then
+    return 2
+end
+return 1
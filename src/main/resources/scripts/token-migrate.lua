@@ -0,0 +1,17 @@
+-- Moves one legacy @RedisHash token record to the compact layout and removes it together
+-- with its index-set memberships. Index keys are read from the record's idx set, so this
+-- script is meant for a standalone Redis, not a cluster.
+-- KEYS: legacy hash, legacy idx set, legacy keyspace set, compact key
+-- ARGV: token id, compact record (empty when the record cannot be converted)
+local ttl = redis.call('PTTL', KEYS[1])
+local moved = 0
+if ttl > 0 and ARGV[2] ~= '' then
+    redis.call('SET', KEYS[4], ARGV[2], 'PX', ttl, 'NX')
+    moved = 1
+end
+for _, index in ipairs(redis.call('SMEMBERS', KEYS[2])) do
+    redis.call('SREM', index, ARGV[1])
+end
+redis.call('DEL', KEYS[1], KEYS[2], KEYS[1] .. ':phantom')
+redis.call('SREM', KEYS[3], ARGV[1])
+return moved
@@ -0,0 +1,12 @@
+-- KEYS: token key, legacy token hash
+-- Returns 1 when a stored token was revoked, 0 when it was not stored.
+-- SETRANGE rewrites the flags byte in place and keeps the key's TTL.
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    redis.call('SETRANGE', KEYS[1], 1, '\1')
+    return 1
+end
+if redis.call('EXISTS', KEYS[2]) == 1 then
+    redis.call('HSET', KEYS[2], 'revoked', '1')
+    return 1
+end
+return 0
@@ -0,0 +1,42 @@
+-- Revokes the presented refresh token and stores the new pair, or does nothing when the
+-- presented token is unknown or already revoked. Two concurrent rotations of the same
+-- refresh token can therefore never both succeed. The access token issued with the presented
+-- refresh token is revoked too, and the rotated session is replaced by the new one in the
+-- owner's session index, evicting the oldest sessions when over the cap.
+-- KEYS: presented refresh key, presented legacy refresh hash, access key, refresh key,
+--       session index
+-- ARGV: record, access ttl, refresh ttl, session member, now (ms), max sessions,
+--       access key prefix, refresh key prefix, presented refresh digest
+-- Returns {'0'} when nothing was stored, else {'1', revoked access digest or '', access digests
+-- of evicted sessions...}
+-- add_session is defined in token-session.lua, loaded ahead of this file.
+local presented = redis.call('GET', KEYS[1])
+if presented then
+    if bit.band(string.byte(presented, 2), 1) == 1 then
+        return { '0' }
+    end
+    redis.call('SETRANGE', KEYS[1], 1, '\1')
+elseif redis.call('HGET', KEYS[2], 'revoked') == '0' then
+    redis.call('HSET', KEYS[2], 'revoked', '1')
+else
+    return { '0' }
+end
+
+-- Legacy refresh tokens have no session entry, so their access token is left to expire
+local rotatedAccess = ''
+for _, session in ipairs(redis.call('ZRANGE', KEYS[5], 0, -1)) do
+    if string.sub(session, 1, 22) == ARGV[9] then
+        rotatedAccess = string.sub(session, 23)
+        local accessKey = ARGV[7] .. rotatedAccess
+        if redis.call('EXISTS', accessKey) == 1 then
+            redis.call('SETRANGE', accessKey, 1, '\1')
+        end
+        redis.call('ZREM', KEYS[5], session)
+    end
+end
+
+redis.call('SET', KEYS[3], ARGV[1], 'EX', ARGV[2])
+redis.call('SET', KEYS[4], ARGV[1], 'EX', ARGV[3])
+local result = add_session(KEYS[5], ARGV[4], ARGV[5], ARGV[3], ARGV[6], ARGV[7], ARGV[8])
+table.insert(result, 2, rotatedAccess)
+return result
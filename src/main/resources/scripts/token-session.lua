@@ -0,0 +1,23 @@
+-- Shared by token-issue.lua and token-rotate.lua, which are loaded with this file prepended.
+-- Records a session in the owner's index, drops sessions older than the refresh TTL and, when
+-- the owner is over the cap, deletes the oldest sessions' tokens.
+-- Returns {'1', access digests of evicted sessions...}
+local function add_session(index, member, now, refreshTtl, maxSessions, accessPrefix, refreshPrefix)
+    local nowMs = tonumber(now)
+    redis.call('ZREMRANGEBYSCORE', index, '-inf', nowMs - tonumber(refreshTtl) * 1000)
+    redis.call('ZADD', index, nowMs, member)
+    redis.call('EXPIRE', index, refreshTtl)
+
+    local result = { '1' }
+    local excess = redis.call('ZCARD', index) - tonumber(maxSessions)
+    if excess > 0 then
+        local oldest = redis.call('ZRANGE', index, 0, excess - 1)
+        for _, session in ipairs(oldest) do
+            local accessDigest = string.sub(session, 23)
+            redis.call('DEL', refreshPrefix .. string.sub(session, 1, 22), accessPrefix .. accessDigest)
+            result[#result + 1] = accessDigest
+        end
+        redis.call('ZREM', index, unpack(oldest))
+    end
+    return result
+end
@@ -0,0 +1,40 @@
+package com.application.aws.service;
+
+import com.application.aws.service.S3MetadataCache.ObjectInfo;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class S3MetadataCacheTest {
+
+    @Test
+    void roundTripsExistingObject() {
+        ObjectInfo info = new ObjectInfo(true, 1234L, "\"9b2cf535f27731c974343645a3985328\"", "image/png");
+
+        assertEquals("1\t1234\t\"9b2cf535f27731c974343645a3985328\"\timage/png", S3MetadataCache.encode(info));
+        assertEquals(info, S3MetadataCache.decode(S3MetadataCache.encode(info)));
+    }
+
+    @Test
+    void roundTripsMissingFields() {
+        ObjectInfo listed = new ObjectInfo(true, 0L, "\"etag\"", null);
+        ObjectInfo bare = new ObjectInfo(true, 7L, null, null);
+
+        assertEquals(listed, S3MetadataCache.decode(S3MetadataCache.encode(listed)));
+        assertEquals("1\t7\t\t", S3MetadataCache.encode(bare));
+        assertEquals(bare, S3MetadataCache.decode(S3MetadataCache.encode(bare)));
+    }
+
+    @Test
+    void roundTripsMissingObject() {
+        assertEquals("0", S3MetadataCache.encode(ObjectInfo.MISSING));
+        assertEquals(ObjectInfo.MISSING, S3MetadataCache.decode("0"));
+    }
+
+    @Test
+    void keepsTabsInContentType() {
+        ObjectInfo info = new ObjectInfo(true, 1L, "\"etag\"", "text/plain;\tcharset=utf-8");
+
+        assertEquals(info, S3MetadataCache.decode(S3MetadataCache.encode(info)));
+    }
+}
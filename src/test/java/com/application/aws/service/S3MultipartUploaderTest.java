@@ -0,0 +1,172 @@
+package com.application.aws.service;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.application.common.exceptions.CustomException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link S3MultipartUploader} against an S3-compatible server, for example
+ * {@code docker run -p 9000:9000 minio/minio server /data}, with
+ * {@code mvn test -Ds3.endpoint=http://localhost:9000 -Dtest=S3MultipartUploaderTest}.
+ * Credentials default to MinIO's {@code minioadmin}.
+ */
+@EnabledIfSystemProperty(named = "s3.endpoint", matches = ".+")
+class S3MultipartUploaderTest {
+
+    private static final int PART_SIZE = S3MultipartUploader.MIN_PART_SIZE;
+    private static final int MAX_SIZE_MB = 25;
+
+    private static AmazonS3 amazonS3;
+    private static String bucket;
+    private static S3MultipartUploader uploader;
+
+    @BeforeAll
+    static void connect() {
+        String credential = System.getProperty("s3.credential", "minioadmin");
+        amazonS3 = AmazonS3ClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(
+                        System.getProperty("s3.endpoint"), "us-east-1"))
+                .withPathStyleAccessEnabled(true)
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(credential, credential)))
+                .build();
+        bucket = "uploader-test-" + UUID.randomUUID();
+        amazonS3.createBucket(bucket);
+        // Three buffers for four threads, so the reader has to wait for parts to finish
+        uploader = new S3MultipartUploader(amazonS3, bucket, 5, 3, 3, 30, 1, 4, 0, MAX_SIZE_MB, Set.of("text/plain"));
+    }
+
+    @AfterAll
+    static void cleanUp() {
+        uploader.shutdown();
+        amazonS3.listObjectsV2(bucket).getObjectSummaries()
+                .forEach(summary -> amazonS3.deleteObject(bucket, summary.getKey()));
+        amazonS3.deleteBucket(bucket);
+    }
+
+    @Test
+    void smallStreamIsSentWithOnePut() throws IOException {
+        byte[] content = random(1024);
+
+        S3MultipartUploader.Result result = uploader.upload("small", "text/plain; charset=UTF-8", content.length,
+                new ByteArrayInputStream(content));
+
+        assertEquals(1, result.parts());
+        assertEquals("text/plain;charset=UTF-8", amazonS3.getObjectMetadata(bucket, "small").getContentType());
+        assertEquals(content.length, result.size());
+        assertArrayEquals(content, read("small"));
+    }
+
+    @Test
+    void largeStreamIsSentInParts() throws IOException {
+        byte[] content = random(PART_SIZE * 3 + 12_345);
+
+        S3MultipartUploader.Result result = uploader.upload("large", "application/octet-stream", -1,
+                new ByteArrayInputStream(content));
+
+        assertEquals(4, result.parts());
+        assertEquals(content.length, result.size());
+        assertArrayEquals(content, read("large"));
+        assertTrue(uploader.uploads().isEmpty());
+    }
+
+    @Test
+    void failedStreamAbortsTheUpload() {
+        InputStream failing = new InputStream() {
+            private long remaining = PART_SIZE * 2L + 1;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining-- == 0) {
+                    throw new IOException("client went away");
+                }
+                return 'x';
+            }
+        };
+
+        assertThrows(IOException.class, () -> uploader.upload("broken", null, -1, failing));
+
+        assertTrue(amazonS3.listMultipartUploads(new ListMultipartUploadsRequest(bucket).withPrefix("broken"))
+                .getMultipartUploads().isEmpty());
+        assertTrue(uploader.uploads().isEmpty());
+    }
+
+    @Test
+    void oversizedStreamAbortsTheUpload() {
+        byte[] content = random(MAX_SIZE_MB * 1024 * 1024 + 1);
+
+        assertThrows(CustomException.class,
+                () -> uploader.upload("oversized", null, -1, new ByteArrayInputStream(content)));
+
+        assertTrue(amazonS3.listMultipartUploads(new ListMultipartUploadsRequest(bucket).withPrefix("oversized"))
+                .getMultipartUploads().isEmpty());
+        assertTrue(uploader.uploads().isEmpty());
+    }
+
+    @Test
+    void announcedOversizedStreamIsRefusedUnread() {
+        InputStream unread = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("body was read");
+            }
+        };
+
+        assertThrows(CustomException.class,
+                () -> uploader.upload("announced", null, MAX_SIZE_MB * 1024L * 1024 + 1, unread));
+    }
+
+    @Test
+    void unlistedContentTypeIsStoredAsOctetStream() throws IOException {
+        byte[] content = random(16);
+
+        S3MultipartUploader.Result result = uploader.upload("page", "text/html", -1, new ByteArrayInputStream(content));
+
+        assertEquals("application/octet-stream", result.contentType());
+        assertEquals("application/octet-stream", amazonS3.getObjectMetadata(bucket, "page").getContentType());
+    }
+
+    @Test
+    void abandonedUploadsAreSwept() {
+        amazonS3.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(bucket, "abandoned"));
+
+        uploader.abortAbandoned();
+
+        assertTrue(amazonS3.listMultipartUploads(new ListMultipartUploadsRequest(bucket).withPrefix("abandoned"))
+                .getMultipartUploads().isEmpty());
+    }
+
+    private static byte[] read(String key) throws IOException {
+        try (S3Object object = amazonS3.getObject(bucket, key)) {
+            return object.getObjectContent().readAllBytes();
+        }
+    }
+
+    private static byte[] random(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,65 @@
+package com.application.baseuser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActivationTokensTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String OTHER_SECRET = Base64.getEncoder().encodeToString(new byte[]{
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+            17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32});
+
+    private final ActivationTokens tokens = new ActivationTokens(SECRET, 60_000);
+    private final String userUuid = UUID.randomUUID().toString();
+
+    @Test
+    void verifiesIssuedToken() {
+        String token = tokens.issue(userUuid);
+
+        assertEquals(54, token.length());
+        assertEquals(Optional.of(userUuid), tokens.verify(token));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String token = new ActivationTokens(SECRET, -1).issue(userUuid);
+
+        assertTrue(tokens.verify(token).isEmpty());
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        byte[] bytes = Base64.getUrlDecoder().decode(tokens.issue(userUuid));
+        for (int i = 0; i < bytes.length; i++) {
+            byte[] tampered = bytes.clone();
+            tampered[i] ^= 1;
+
+            assertTrue(tokens.verify(Base64.getUrlEncoder().withoutPadding().encodeToString(tampered)).isEmpty(),
+                    "byte " + i);
+        }
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherSecret() {
+        String token = new ActivationTokens(OTHER_SECRET, 60_000).issue(userUuid);
+
+        assertTrue(tokens.verify(token).isEmpty());
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        String token = tokens.issue(userUuid);
+
+        assertTrue(tokens.verify("").isEmpty());
+        assertTrue(tokens.verify("not a token!").isEmpty());
+        assertTrue(tokens.verify(token.substring(0, token.length() - 2)).isEmpty());
+        assertTrue(tokens.verify(token + "AA").isEmpty());
+    }
+}
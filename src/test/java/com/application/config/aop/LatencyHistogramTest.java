@@ -0,0 +1,68 @@
+package com.application.config.aop;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void keepsSmallValuesExact() {
+        for (long value = 0; value < 32; value++) {
+            assertEquals(value, LatencyHistogram.index(value));
+            assertEquals(value, LatencyHistogram.upperBound((int) value));
+        }
+    }
+
+    @Test
+    void bucketsAreContiguous() {
+        long lower = 0;
+        for (int index = 0; index <= LatencyHistogram.index((1L << 44) - 1); index++) {
+            long upper = LatencyHistogram.upperBound(index);
+
+            assertEquals(index, LatencyHistogram.index(lower), "lower bound of " + index);
+            assertEquals(index, LatencyHistogram.index(upper), "upper bound of " + index);
+            lower = upper + 1;
+        }
+        assertEquals(1L << 44, lower);
+    }
+
+    @Test
+    void boundsStayWithinRelativeError() {
+        for (long value = 32; value < 1L << 44; value = value * 3 / 2 + 7) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.index(value));
+
+            assertTrue(upper >= value && upper - value <= value / 16, "value " + value);
+        }
+    }
+
+    @Test
+    void reportsPercentilesAsBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value * 1_000, value == 100);
+        }
+
+        long[] percentiles = histogram.percentiles(50, 99, 100);
+
+        assertEquals(100, histogram.count());
+        assertEquals(1, histogram.errors());
+        assertEquals(100_000, histogram.max());
+        assertArrayEquals(new long[]{
+                LatencyHistogram.upperBound(LatencyHistogram.index(50_000)),
+                LatencyHistogram.upperBound(LatencyHistogram.index(99_000)),
+                LatencyHistogram.upperBound(LatencyHistogram.index(100_000))}, percentiles);
+    }
+
+    @Test
+    void clampsOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5, false);
+        histogram.record(Long.MAX_VALUE, false);
+
+        assertEquals(0, histogram.percentiles(50)[0]);
+        assertEquals((1L << 44) - 1, histogram.max());
+    }
+}
@@ -0,0 +1,61 @@
+package com.application.config.aop;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceContextTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_ID = "00f067aa0ba902b7";
+
+    @Test
+    void continuesValidTraceparent() {
+        TraceContext context = TraceContext.fromTraceparent("00-" + TRACE_ID + "-" + PARENT_ID + "-01");
+
+        assertEquals(TRACE_ID, context.traceId());
+        assertNotEquals(PARENT_ID, context.spanId());
+        assertEquals(16, context.spanId().length());
+        assertTrue(context.sampled());
+        assertEquals("00-" + TRACE_ID + "-" + context.spanId() + "-01", context.traceparent());
+    }
+
+    @Test
+    void readsSampledFlagFromLowestBit() {
+        assertFalse(TraceContext.fromTraceparent("00-" + TRACE_ID + "-" + PARENT_ID + "-00").sampled());
+        assertFalse(TraceContext.fromTraceparent("00-" + TRACE_ID + "-" + PARENT_ID + "-02").sampled());
+        assertTrue(TraceContext.fromTraceparent("00-" + TRACE_ID + "-" + PARENT_ID + "-03").sampled());
+    }
+
+    @Test
+    void acceptsLongerHeaderFromNewerVersion() {
+        TraceContext context = TraceContext.fromTraceparent("01-" + TRACE_ID + "-" + PARENT_ID + "-01-extra");
+
+        assertEquals(TRACE_ID, context.traceId());
+    }
+
+    @Test
+    void startsNewTraceForInvalidTraceparent() {
+        assertNewTrace(null);
+        assertNewTrace("");
+        assertNewTrace("00-" + TRACE_ID + "-" + PARENT_ID);
+        assertNewTrace("ff-" + TRACE_ID + "-" + PARENT_ID + "-01");
+        assertNewTrace("00-" + "0".repeat(32) + "-" + PARENT_ID + "-01");
+        assertNewTrace("00-" + TRACE_ID + "-" + "0".repeat(16) + "-01");
+        assertNewTrace("00-" + TRACE_ID.toUpperCase() + "-" + PARENT_ID + "-01");
+        assertNewTrace("00_" + TRACE_ID + "-" + PARENT_ID + "-01");
+        assertNewTrace("00-" + TRACE_ID + "-" + PARENT_ID + "-0g");
+        assertNewTrace("00-" + TRACE_ID + "-" + PARENT_ID + "-01x");
+    }
+
+    private static void assertNewTrace(String header) {
+        TraceContext context = TraceContext.fromTraceparent(header);
+
+        assertNotEquals(TRACE_ID, context.traceId(), String.valueOf(header));
+        assertEquals(32, context.traceId().length());
+        assertTrue(context.sampled());
+    }
+}
@@ -0,0 +1,42 @@
+package com.application.config.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRecordTest {
+
+    private final String userUuid = UUID.randomUUID().toString();
+
+    @Test
+    void packsActiveRecord() {
+        byte[] record = TokenRecord.pack(userUuid, false);
+
+        assertEquals(TokenRecord.LENGTH, record.length);
+        assertEquals(1, record[0]);
+        assertFalse(TokenRecord.isRevoked(record));
+        assertEquals(userUuid, TokenRecord.userUuid(record));
+    }
+
+    @Test
+    void packsRevokedRecord() {
+        byte[] record = TokenRecord.pack(userUuid, true);
+
+        assertTrue(TokenRecord.isRevoked(record));
+        assertEquals(userUuid, TokenRecord.userUuid(record));
+    }
+
+    @Test
+    void readsFlagFlippedInPlace() {
+        // The revoke scripts set bit 0 of the flags byte without rewriting the record
+        byte[] record = TokenRecord.pack(userUuid, false);
+        record[1] |= 1;
+
+        assertTrue(TokenRecord.isRevoked(record));
+        assertEquals(userUuid, TokenRecord.userUuid(record));
+    }
+}
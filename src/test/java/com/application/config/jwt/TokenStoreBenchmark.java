@@ -0,0 +1,103 @@
+package com.application.config.jwt;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compares login-time token writes through {@link TokenStore} with the command sequence the
+ * Spring Data repositories used to issue. Needs a Redis on localhost:6379; run with
+ * {@code mvn test -Dbenchmark=true -Dtest=TokenStoreBenchmark}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TokenStoreBenchmark {
+
+    private static final int WARMUP = 1_000;
+    private static final int ITERATIONS = 10_000;
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static RedisTemplate<String, String> redisTemplate;
+    private static RedisTemplate<String, byte[]> tokenRedisTemplate;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        tokenRedisTemplate = new RedisTemplate<>();
+        tokenRedisTemplate.setConnectionFactory(connectionFactory);
+        tokenRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        tokenRedisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        tokenRedisTemplate.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void issue() {
+        TokenStore tokenStore = new TokenStore(tokenRedisTemplate, 60_000, 60_000, 20);
+        String userUuid = random();
+        report("repository path", () -> repositoryIssue(random(), random(), userUuid, "bench@local"));
+        report("token store", () -> tokenStore.issue(random(), random(), userUuid));
+    }
+
+    // HMSET, EXPIRE and three SADDs per entity, as the keyspace converter writes them
+    private void repositoryIssue(String accessToken, String refreshToken, String userUuid, String email) {
+        repositorySave("AccessToken", accessToken, "uuid", userUuid);
+        repositorySave("RefreshToken", refreshToken, "email", email);
+    }
+
+    private void repositorySave(String keyspace, String id, String field, String value) {
+        String key = keyspace + ":" + id;
+        String index = keyspace + ":" + field + ":" + value;
+        String now = Instant.now().toString();
+        redisTemplate.opsForHash().putAll(key, Map.of(
+                "token", id, field, value, "revoked", "0", "expired", "0",
+                "createdAt", now, "lastUpdatedAt", now));
+        redisTemplate.expire(key, Duration.ofSeconds(60));
+        redisTemplate.opsForSet().add(keyspace, id);
+        redisTemplate.opsForSet().add(index, id);
+        redisTemplate.opsForSet().add(key + ":idx", index);
+    }
+
+    private void report(String name, Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            operation.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-16s p50=%6dus p99=%6dus max=%6dus%n", name,
+                samples[ITERATIONS / 2] / 1000,
+                samples[ITERATIONS * 99 / 100] / 1000,
+                samples[ITERATIONS - 1] / 1000);
+    }
+
+    private static String random() {
+        return UUID.randomUUID().toString();
+    }
+}
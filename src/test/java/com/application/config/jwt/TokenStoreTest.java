@@ -0,0 +1,97 @@
+package com.application.config.jwt;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link TokenStore} scripts against a Redis server, for example
+ * {@code docker run -p 6379:6379 redis}, with
+ * {@code mvn test -Dredis.host=localhost -Dtest=TokenStoreTest}. {@code redis.port} defaults to
+ * 6379.
+ */
+@EnabledIfSystemProperty(named = "redis.host", matches = ".+")
+class TokenStoreTest {
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static TokenStore tokenStore;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(System.getProperty("redis.host"),
+                Integer.getInteger("redis.port", 6379));
+        connectionFactory.afterPropertiesSet();
+        RedisTemplate<String, byte[]> tokenRedisTemplate = new RedisTemplate<>();
+        tokenRedisTemplate.setConnectionFactory(connectionFactory);
+        tokenRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        tokenRedisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        tokenRedisTemplate.afterPropertiesSet();
+        tokenStore = new TokenStore(tokenRedisTemplate, 60_000, 60_000, 2);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void rotationRevokesThePreviousAccessToken() {
+        String userUuid = random();
+        String accessToken = random();
+        String refreshToken = random();
+        tokenStore.issue(accessToken, refreshToken, userUuid);
+
+        String newAccessToken = random();
+        TokenStore.Result result = tokenStore.rotate(refreshToken, newAccessToken, random(), userUuid);
+
+        assertTrue(result.stored());
+        assertEquals(TokenDigest.compact(accessToken), result.rotatedAccessDigest());
+        assertEquals(TokenStore.Status.REVOKED, tokenStore.lookup(accessToken));
+        assertEquals(TokenStore.Status.ACTIVE, tokenStore.lookup(newAccessToken));
+        assertEquals(1, tokenStore.sessions(userUuid).size());
+    }
+
+    @Test
+    void refreshTokenRotatesOnlyOnce() {
+        String userUuid = random();
+        String refreshToken = random();
+        tokenStore.issue(random(), refreshToken, userUuid);
+        tokenStore.rotate(refreshToken, random(), random(), userUuid);
+
+        TokenStore.Result result = tokenStore.rotate(refreshToken, random(), random(), userUuid);
+
+        assertFalse(result.stored());
+        assertNull(result.rotatedAccessDigest());
+    }
+
+    @Test
+    void issueOverTheCapEvictsTheOldestSession() {
+        String userUuid = random();
+        String oldest = random();
+        tokenStore.issue(oldest, random(), userUuid);
+        tokenStore.issue(random(), random(), userUuid);
+
+        TokenStore.Result result = tokenStore.issue(random(), random(), userUuid);
+
+        assertNull(result.rotatedAccessDigest());
+        assertEquals(List.of(TokenDigest.compact(oldest)), result.evictedAccessDigests());
+        assertEquals(TokenStore.Status.ABSENT, tokenStore.lookup(oldest));
+    }
+
+    private static String random() {
+        return UUID.randomUUID().toString();
+    }
+}
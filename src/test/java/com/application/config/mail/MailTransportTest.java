@@ -0,0 +1,141 @@
+package com.application.config.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link MailTransport} and {@link SmtpConnectionPool} against a local SMTP server, for
+ * example {@code docker run -p 1025:1025 -p 8025:8025 mailhog/mailhog}, with
+ * {@code mvn test -Dsmtp.host=localhost -Dtest=MailTransportTest}. {@code smtp.port} defaults to
+ * 1025; with {@code -Dsmtp.api=http://localhost:8025} delivery is also checked through
+ * MailHog's API.
+ */
+@EnabledIfSystemProperty(named = "smtp.host", matches = ".+")
+class MailTransportTest {
+
+    private static final int MESSAGES_PER_CONNECTION = 10;
+    private static final Pattern MESSAGE_ID = Pattern.compile("\"Message-ID\":\\[\"([^\"]+)\"\\]");
+
+    private static SmtpConnectionPool pool;
+    private static MailTransport transport;
+
+    @BeforeAll
+    static void connect() {
+        MailProperties properties = new MailProperties();
+        properties.setHost(System.getProperty("smtp.host"));
+        properties.setPort(Integer.getInteger("smtp.port", 1025));
+        pool = new SmtpConnectionPool(properties, 2, MESSAGES_PER_CONNECTION, 60, 5_000);
+        transport = new MailTransport(pool, 2, Map.of());
+    }
+
+    @AfterAll
+    static void disconnect() {
+        pool.shutdown();
+    }
+
+    @Test
+    void batchReusesConnections() throws Exception {
+        String batch = UUID.randomUUID().toString();
+        List<MimeMessage> messages = messages(batch, 25);
+        long openedBefore = pool.openedConnections();
+        Map<Integer, Exception> failures = new ConcurrentHashMap<>();
+        List<Integer> sent = new ArrayList<>();
+
+        transport.send("example.test", messages, new MailTransport.Listener() {
+            @Override
+            public void sent(int index) {
+                sent.add(index);
+            }
+
+            @Override
+            public void failed(int index, Exception error) {
+                failures.put(index, error);
+            }
+        });
+
+        assertTrue(failures.isEmpty(), () -> "failed: " + failures);
+        assertEquals(25, sent.size());
+        // Every connection carries up to MESSAGES_PER_CONNECTION messages before it is retired;
+        // an idle one left by another test may take the first few
+        long opened = pool.openedConnections() - openedBefore;
+        assertTrue(opened >= 2 && opened <= 3, () -> "opened " + opened + " connections");
+
+        String api = System.getProperty("smtp.api");
+        if (api != null) {
+            assertEquals(25, delivered(api, batch));
+        }
+    }
+
+    @Test
+    void idleConnectionIsReused() throws Exception {
+        transport.send("example.test", messages(UUID.randomUUID().toString(), 1), noop());
+        long openedBefore = pool.openedConnections();
+
+        transport.send("example.test", messages(UUID.randomUUID().toString(), 1), noop());
+
+        assertEquals(openedBefore, pool.openedConnections());
+    }
+
+    private static List<MimeMessage> messages(String batch, int count) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = transport.createMimeMessage();
+            message.setFrom(new InternetAddress("sender@example.test"));
+            message.setRecipients(MimeMessage.RecipientType.TO, "user" + i + "@example.test");
+            message.setSubject("batch " + batch);
+            message.setText("message " + i);
+            message.saveChanges();
+            message.setHeader("Message-ID", "<" + batch + "-" + i + "@example.test>");
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static long delivered(String api, String batch) throws IOException, InterruptedException {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(api + "/api/v2/search?kind=containing&query=" + batch)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = MESSAGE_ID.matcher(response.body());
+        long count = 0;
+        while (matcher.find()) {
+            if (matcher.group(1).contains(batch)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static MailTransport.Listener noop() {
+        return new MailTransport.Listener() {
+            @Override
+            public void sent(int index) {
+            }
+
+            @Override
+            public void failed(int index, Exception error) {
+            }
+        };
+    }
+}